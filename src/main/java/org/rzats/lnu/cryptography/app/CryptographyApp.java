@@ -9,12 +9,12 @@ import org.rzats.lnu.cryptography.ciphers.SimplifiedDESCipher;
 import org.rzats.lnu.cryptography.ciphers.VigenereCipher;
 import org.rzats.lnu.cryptography.common.ArrayUtilities;
 import org.rzats.lnu.cryptography.common.MathUtilities;
+import org.rzats.lnu.cryptography.cryptanalysis.CaesarBreaker;
 import org.rzats.lnu.cryptography.cryptanalysis.TextUtilities;
 import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanParty;
 import org.rzats.lnu.cryptography.cryptosystem.RSACryptosystem;
 
 import java.util.Arrays;
-import java.util.HashMap;
 
 public class CryptographyApp {
     private CryptographyApp() {
@@ -72,42 +72,23 @@ public class CryptographyApp {
         // Cryptanalysis
 
         System.out.println("--- Frequency tables: --- ");
-        System.out.println("English frequency table: " + new HashMap<Character, Double>() {{
-            put('A', 0.08167);
-            put('B', 0.01492);
-            put('C', 0.02782);
-            put('D', 0.04253);
-            put('E', 0.12702);
-            put('F', 0.02228);
-            put('G', 0.02015);
-            put('H', 0.06094);
-            put('I', 0.06966);
-            put('J', 0.00154);
-            put('K', 0.00772);
-            put('L', 0.04025);
-            put('M', 0.02406);
-            put('N', 0.06749);
-            put('O', 0.07507);
-            put('P', 0.01929);
-            put('Q', 0.00095);
-            put('R', 0.05987);
-            put('S', 0.06327);
-            put('T', 0.09056);
-            put('U', 0.02758);
-            put('V', 0.00978);
-            put('W', 0.02351);
-            put('X', 0.00150);
-            put('Y', 0.01974);
-            put('Z', 0.00074);
-        }});
-        System.out.println("Example frequency table: " + TextUtilities.frequencyDistribution("Hereupon Legrand arose, with a grave and stately air, and brought me the beetle\n" +
+        System.out.println("English frequency table: " + TextUtilities.englishFrequencyDistribution());
+        String example = "Hereupon Legrand arose, with a grave and stately air, and brought me the beetle\n" +
             "from a glass case in which it was enclosed. It was a beautiful scarabaeus, and, at\n" +
             "that time, unknown to naturalists—of course a great prize in a scientific point\n" +
             "of view. There were two round black spots near one extremity of the back, and a\n" +
             "long one near the other. The scales were exceedingly hard and glossy, with all the\n" +
             "appearance of burnished gold. The weight of the insect was very remarkable, and,\n" +
             "taking all things into consideration, I could hardly blame Jupiter for his opinion\n" +
-            "respecting it."));
+            "respecting it.";
+        System.out.println("Example frequency table: " + TextUtilities.frequencyDistribution(example));
+
+        System.out.println("--- Caesar cipher cryptanalysis: --- ");
+        String caesarCiphertext = ArrayUtilities.toText(caesar.encrypt(ArrayUtilities.toASCIIArray(example)));
+        int shift = CaesarBreaker.rankShifts(caesarCiphertext)[0];
+        System.out.println("Most likely shift: " + shift);
+        System.out.println("Decrypted plaintext: " +
+            ArrayUtilities.toText(new CaesarCipher(shift).decrypt(ArrayUtilities.toASCIIArray(caesarCiphertext))));
 
         // Cryptosystems
 
@@ -0,0 +1,95 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import java.util.Random;
+
+/**
+ * A minimal timing harness for the benchmarks in this package.
+ * <p>
+ * Each task is warmed up before being timed, and the best of several runs is reported,
+ * which is accurate enough to compare implementations that differ by a large factor.
+ */
+public class Benchmark {
+    /**
+     * The amount of untimed runs before measuring.
+     */
+    private static final int WARMUP_RUNS = 3;
+    /**
+     * The amount of timed runs.
+     */
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Accumulates the results passed to {@link #consume(long)}.
+     */
+    private static volatile long sink;
+
+    private Benchmark() {
+
+    }
+
+    /**
+     * Times a task and prints its' throughput.
+     *
+     * @param name  The name of the task.
+     * @param bytes The amount of bytes the task processes per run.
+     * @param task  The task to time.
+     * @return The best throughput achieved, in megabytes per second.
+     */
+    public static double measure(String name, long bytes, Runnable task) {
+        long best = best(task);
+        double throughput = bytes / (best / 1e9) / (1024 * 1024);
+        System.out.println(String.format("%-40s %10.3f ms %12.3f MB/s", name, best / 1e6, throughput));
+        return throughput;
+    }
+
+    /**
+     * Times a task and prints its' duration.
+     *
+     * @param name The name of the task.
+     * @param task The task to time.
+     * @return The best duration achieved, in nanoseconds.
+     */
+    public static long measure(String name, Runnable task) {
+        long best = best(task);
+        System.out.println(String.format("%-40s %10.3f ms", name, best / 1e6));
+        return best;
+    }
+
+    /**
+     * Consumes a result of the timed work, so that the JIT compiler can not drop the work that computed it.
+     *
+     * @param result The result.
+     */
+    public static void consume(long result) {
+        sink += result;
+    }
+
+    private static long best(Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Generates random printable ASCII text.
+     *
+     * @param length The length of the text.
+     * @return The text as bytes.
+     */
+    public static byte[] randomText(int length) {
+        Random random = new Random(42);
+        byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (byte) (' ' + random.nextInt('~' - ' ' + 1));
+        }
+        return text;
+    }
+}
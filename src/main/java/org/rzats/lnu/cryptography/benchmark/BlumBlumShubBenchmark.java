@@ -0,0 +1,78 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.ciphers.BlumBlumShubCipher;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Measures the keystream throughput of the BBS generator for several modulus sizes and amounts of bits per step.
+ */
+public class BlumBlumShubBenchmark {
+    private BlumBlumShubBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        // 167 * 179 is small enough for the double-based squaring the generator used to do.
+        int legacyModulus = 167 * 179;
+        int legacyBytes = 1 << 16;
+        Benchmark.measure("Legacy double squaring (15 bits)", legacyBytes,
+            () -> Benchmark.consume(legacySequence(legacyModulus, legacyBytes)[0]));
+
+        BlumBlumShubCipher word = new BlumBlumShubCipher(167, 179, 1234);
+        Benchmark.measure("Montgomery squaring (15 bits)", legacyBytes,
+            () -> Benchmark.consume(word.generateBytes(legacyBytes)[0]));
+
+        BlumBlumShubCipher large = new BlumBlumShubCipher(46307, 46351, 987654);
+        Benchmark.measure("Montgomery squaring (31 bits)", legacyBytes,
+            () -> Benchmark.consume(large.generateBytes(legacyBytes)[0]));
+
+        Random random = new Random(42);
+        for (int bits : new int[]{512, 1024, 2048}) {
+            BlumBlumShubCipher cipher = new BlumBlumShubCipher(blumPrime(bits / 2, random), blumPrime(bits / 2, random),
+                new BigInteger(bits - 1, random));
+            int bytes = (1 << 18) / bits;
+            Benchmark.measure("BigInteger squaring (" + bits + " bits)", bytes,
+                () -> Benchmark.consume(cipher.generateBytes(bytes)[0]));
+        }
+
+        for (int bits : new int[]{1024, 2048}) {
+            BigInteger p = blumPrime(bits / 2, random);
+            BigInteger q = blumPrime(bits / 2, random);
+            BigInteger seed = new BigInteger(bits - 1, random);
+            for (int bitsPerStep = 1; bitsPerStep <= BlumBlumShubCipher.maxBitsPerStep(p.multiply(q)); bitsPerStep++) {
+                BlumBlumShubCipher cipher = new BlumBlumShubCipher(p, q, seed, bitsPerStep);
+                int bytes = (1 << 18) / bits * bitsPerStep;
+                Benchmark.measure(bits + "-bit modulus, " + bitsPerStep + " bits/step", bytes,
+                    () -> Benchmark.consume(cipher.generateBytes(bytes)[0]));
+            }
+        }
+    }
+
+    /**
+     * The keystream generation as it was before the switch to Montgomery arithmetic.
+     */
+    private static byte[] legacySequence(int modulus, int length) {
+        byte[] result = new byte[length];
+        int x = (int) Math.pow(1234, 2) % modulus;
+        for (int i = 0; i < length * Byte.SIZE; i++) {
+            x = (int) Math.pow(x, 2) % modulus;
+            result[i / Byte.SIZE] |= (x % 2) << (i % Byte.SIZE);
+        }
+        return result;
+    }
+
+    /**
+     * Generates a prime congruent to 3 mod 4.
+     */
+    static BigInteger blumPrime(int bits, Random random) {
+        BigInteger three = BigInteger.valueOf(3);
+        BigInteger four = BigInteger.valueOf(4);
+        BigInteger prime;
+        do {
+            prime = BigInteger.probablePrime(bits, random);
+        } while (!prime.mod(four).equals(three));
+        return prime;
+    }
+}
@@ -0,0 +1,49 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.ciphers.CaesarCipher;
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+import org.rzats.lnu.cryptography.common.MathUtilities;
+
+/**
+ * Compares the table-driven Caesar cipher with per-character shifting on a 100 MB message.
+ */
+public class CaesarBenchmark {
+    private static final int MESSAGE_SIZE = 100 * 1024 * 1024;
+    private static final int SHIFT = 23;
+
+    private CaesarBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        byte[] message = Benchmark.randomText(MESSAGE_SIZE);
+        CaesarCipher cipher = new CaesarCipher(SHIFT);
+
+        double perCharacter = Benchmark.measure("Per-character shift", MESSAGE_SIZE, () -> {
+            for (int i = 0; i < message.length; i++) {
+                message[i] = (byte) shift(message[i], SHIFT);
+            }
+        });
+        double table = Benchmark.measure("Translation table", MESSAGE_SIZE,
+            () -> cipher.encrypt(message, 0, message.length));
+
+        System.out.println(String.format("Speedup: %.1fx", table / perCharacter));
+    }
+
+    /**
+     * The per-character shift used by the Caesar cipher before the translation tables.
+     */
+    private static int shift(int character, int shift) {
+        if (Character.isAlphabetic(character)) {
+            if (Character.isUpperCase(character)) {
+                return CryptoConstants.ASCII_A_UPPERCASE
+                    + MathUtilities.modulo(character - CryptoConstants.ASCII_A_UPPERCASE + shift, CryptoConstants.ALPHABET_SIZE);
+            } else {
+                return CryptoConstants.ASCII_A_LOWERCASE
+                    + MathUtilities.modulo(character - CryptoConstants.ASCII_A_LOWERCASE + shift, CryptoConstants.ALPHABET_SIZE);
+            }
+        }
+
+        return character;
+    }
+}
@@ -0,0 +1,72 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.ciphers.CaesarCipher;
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+import org.rzats.lnu.cryptography.cryptanalysis.CaesarBreaker;
+import org.rzats.lnu.cryptography.cryptanalysis.TextUtilities;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Compares breaking a 64 MB Caesar ciphertext by decrypting it with every shift and scoring each decryption,
+ * with scoring the rotations of a single histogram of the ciphertext.
+ */
+public class CaesarBreakerBenchmark {
+    private static final int MESSAGE_SIZE = 64 * 1024 * 1024;
+    private static final int SHIFT = 23;
+
+    private CaesarBreakerBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        byte[] ciphertext = englishLikeText(MESSAGE_SIZE);
+        new CaesarCipher(SHIFT).encrypt(ciphertext, 0, ciphertext.length);
+        byte[] decryption = new byte[ciphertext.length];
+
+        double decryptions = Benchmark.measure("Decrypt and score every shift", MESSAGE_SIZE, () -> {
+            int best = 0;
+            double bestScore = Double.MAX_VALUE;
+            for (int shift = 0; shift < CryptoConstants.ALPHABET_SIZE; shift++) {
+                System.arraycopy(ciphertext, 0, decryption, 0, ciphertext.length);
+                new CaesarCipher(shift).decrypt(decryption, 0, decryption.length);
+                double score = CaesarBreaker.chiSquared(TextUtilities.letterCounts(ByteBuffer.wrap(decryption)))[0];
+                if (score < bestScore) {
+                    best = shift;
+                    bestScore = score;
+                }
+            }
+            Benchmark.consume(best);
+        });
+        double rotations = Benchmark.measure("Score the histogram rotations", MESSAGE_SIZE, () ->
+            Benchmark.consume(CaesarBreaker.rankShifts(TextUtilities.letterCounts(ByteBuffer.wrap(ciphertext)))[0]));
+        System.out.println(String.format("Speedup: %.1fx", rotations / decryptions));
+
+        System.out.println("Most likely shift: "
+            + CaesarBreaker.rankShifts(TextUtilities.letterCounts(ByteBuffer.wrap(ciphertext)))[0]);
+    }
+
+    /**
+     * Generates lowercase words with letters drawn from the English letter frequencies.
+     */
+    private static byte[] englishLikeText(int length) {
+        double[] frequencies = TextUtilities.englishFrequencies();
+        Random random = new Random(42);
+        byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(6) == 0) {
+                text[i] = ' ';
+                continue;
+            }
+
+            double r = random.nextDouble();
+            int letter = 0;
+            while (letter < CryptoConstants.ALPHABET_SIZE - 1 && (r -= frequencies[letter]) > 0) {
+                letter++;
+            }
+            text[i] = (byte) (CryptoConstants.ASCII_A_LOWERCASE + letter);
+        }
+        return text;
+    }
+}
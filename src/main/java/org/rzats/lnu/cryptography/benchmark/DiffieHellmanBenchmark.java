@@ -0,0 +1,56 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Compares Diffie-Hellman public key generation with {@code modPow} against the fixed-base window tables
+ * of a shared 2048-bit group, for several window widths.
+ */
+public class DiffieHellmanBenchmark {
+    private static final int MODULUS_BITS = 2048;
+    private static final int PARTIES = 200;
+    private static final BigInteger BASE = BigInteger.valueOf(5);
+
+    private DiffieHellmanBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        BigInteger modulus = BigInteger.probablePrime(MODULUS_BITS, random);
+
+        BigInteger[] privateKeys = new BigInteger[PARTIES];
+        for (int i = 0; i < PARTIES; i++) {
+            privateKeys[i] = new BigInteger(MODULUS_BITS - 1, random);
+        }
+
+        long modPow = Benchmark.measure(PARTIES + " public keys, modPow", () -> {
+            for (BigInteger privateKey : privateKeys) {
+                Benchmark.consume(BASE.modPow(privateKey, modulus).intValue());
+            }
+        });
+
+        for (int windowBits : new int[]{4, 5, 6, 8}) {
+            long start = System.nanoTime();
+            DiffieHellmanGroup group = new DiffieHellmanGroup(modulus, BASE, windowBits);
+            long setup = System.nanoTime() - start;
+
+            for (BigInteger privateKey : privateKeys) {
+                if (!group.exponentiate(privateKey).equals(BASE.modPow(privateKey, modulus))) {
+                    throw new IllegalStateException("The window table gives a wrong public key");
+                }
+            }
+
+            long table = Benchmark.measure(PARTIES + " public keys, " + windowBits + "-bit window", () -> {
+                for (BigInteger privateKey : privateKeys) {
+                    Benchmark.consume(group.exponentiate(privateKey).intValue());
+                }
+            });
+            System.out.println(String.format("Table built in %.1f ms, speedup: %.1fx",
+                setup / 1e6, (double) modPow / table));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.cryptanalysis.TextUtilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the regex and boxed-map frequency distribution with the primitive letter counts,
+ * over a string, a reader, a direct buffer and a memory-mapped file.
+ * <p>
+ * Argument: the size of the generated file in megabytes (256 by default).
+ */
+public class FrequencyAnalysisBenchmark {
+    private static final int TEXT_SIZE = 16 * 1024 * 1024;
+    private static final int DEFAULT_FILE_MEGABYTES = 256;
+
+    private FrequencyAnalysisBenchmark() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        int fileMegabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FILE_MEGABYTES;
+
+        byte[] bytes = Benchmark.randomText(TEXT_SIZE);
+        String text = new String(bytes, StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+
+        double boxed = Benchmark.measure("Regex and boxed map, string", bytes.length, () ->
+            Benchmark.consume(boxedFrequencyDistribution(text).size()));
+        double counts = Benchmark.measure("Letter counts, string", bytes.length, () ->
+            Benchmark.consume(TextUtilities.letterCounts(text)[0]));
+        System.out.println(String.format("Speedup: %.1fx", counts / boxed));
+
+        Benchmark.measure("Letter counts, reader", bytes.length, () -> {
+            try {
+                Benchmark.consume(TextUtilities.letterCounts(new StringReader(text))[0]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Benchmark.measure("Letter counts, direct buffer", bytes.length, () ->
+            Benchmark.consume(TextUtilities.letterCounts(buffer)[0]));
+
+        Path file = Files.createTempFile("frequency-analysis", ".txt");
+        try {
+            try (OutputStream output = Files.newOutputStream(file)) {
+                for (long written = 0; written < (long) fileMegabytes * 1024 * 1024; written += bytes.length) {
+                    output.write(bytes);
+                }
+            }
+            Benchmark.measure("Letter counts, mapped file", Files.size(file), () -> {
+                try {
+                    Benchmark.consume(TextUtilities.letterCounts(file)[0]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * The frequency distribution as it used to be built, for comparison.
+     */
+    private static Map<Character, Double> boxedFrequencyDistribution(String text) {
+        text = text.replaceAll("[^a-zA-Z]", "").toUpperCase();
+        Map<Character, Double> frequencyDistribution = new HashMap<>(26);
+        for (char c = 'A'; c <= 'Z'; c++) {
+            frequencyDistribution.put(c, 0.0);
+        }
+        for (Character c : text.toCharArray()) {
+            frequencyDistribution.put(c, frequencyDistribution.get(c) + 1);
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            frequencyDistribution.put(c, frequencyDistribution.get(c) / text.length());
+        }
+        return frequencyDistribution;
+    }
+}
@@ -0,0 +1,40 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+import org.rzats.lnu.cryptography.cryptosystem.GroupKeyAgreement;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Compares building the key tree of a 256-member group with rekeying it after a member joins and leaves.
+ */
+public class GroupKeyAgreementBenchmark {
+    private static final int MODULUS_BITS = 1024;
+    private static final int MEMBERS = 256;
+    private static final int REKEYS = 20;
+
+    private GroupKeyAgreementBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        DiffieHellmanGroup group = DiffieHellmanGroup.of(BigInteger.probablePrime(MODULUS_BITS, random), BigInteger.valueOf(5));
+
+        long build = Benchmark.measure(MEMBERS + " members, whole tree", () -> {
+            Benchmark.consume(new GroupKeyAgreement(group, MEMBERS).getGroupSecret().intValue());
+        });
+
+        GroupKeyAgreement agreement = new GroupKeyAgreement(group, MEMBERS);
+        long rekey = Benchmark.measure(REKEYS + " joins and leaves", () -> {
+            for (int i = 0; i < REKEYS; i++) {
+                agreement.leave(agreement.join());
+                Benchmark.consume(agreement.getGroupSecret().intValue());
+            }
+        });
+
+        System.out.println(String.format("A join and a leave take %.1f%% of a rebuild",
+            100.0 * rekey / REKEYS / build));
+    }
+}
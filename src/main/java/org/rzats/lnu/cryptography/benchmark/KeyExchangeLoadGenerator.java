@@ -0,0 +1,75 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+import org.rzats.lnu.cryptography.network.KeyExchangeClient;
+import org.rzats.lnu.cryptography.network.KeyExchangeServer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs Diffie-Hellman handshakes against a loopback {@link KeyExchangeServer} over many concurrent connections,
+ * and reports the throughput and latency percentiles.
+ * <p>
+ * Arguments: the amount of concurrent connections (10000 by default) and the modulus size in bits (512 by default).
+ * Both the client and the server side of every connection need a file descriptor, so the limit of open files
+ * must be somewhat above twice the amount of connections.
+ */
+public class KeyExchangeLoadGenerator {
+    private static final int DEFAULT_CONNECTIONS = 10_000;
+    private static final int DEFAULT_MODULUS_BITS = 512;
+    private static final int WARMUP_CONNECTIONS = 1_000;
+
+    private KeyExchangeLoadGenerator() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        int modulusBits = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MODULUS_BITS;
+
+        DiffieHellmanGroup group = DiffieHellmanGroup.of(
+            BigInteger.probablePrime(modulusBits, new Random(42)), BigInteger.valueOf(5));
+        Set<BigInteger> serverSecrets = ConcurrentHashMap.newKeySet();
+        Set<BigInteger> clientSecrets = ConcurrentHashMap.newKeySet();
+
+        try (KeyExchangeServer server = new KeyExchangeServer(group,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), ForkJoinPool.commonPool(), serverSecrets::add)) {
+            KeyExchangeClient client = new KeyExchangeClient(group, server.getAddress(), ForkJoinPool.commonPool());
+
+            client.handshake(WARMUP_CONNECTIONS, secret -> {
+            });
+
+            long start = System.nanoTime();
+            long[] latencies = client.handshake(connections, clientSecrets::add);
+            long elapsed = System.nanoTime() - start;
+
+            clientSecrets.removeAll(serverSecrets);
+            System.out.println(String.format("%d of %d handshakes completed in %.3f s, %d secrets mismatched",
+                latencies.length, connections, elapsed / 1e9, clientSecrets.size()));
+            if (latencies.length > 0) {
+                System.out.println(String.format("%.0f handshakes/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    latencies.length / (elapsed / 1e9),
+                    percentile(latencies, 0.50) / 1e6,
+                    percentile(latencies, 0.99) / 1e6,
+                    latencies[latencies.length - 1] / 1e6));
+            }
+        }
+    }
+
+    /**
+     * @param sorted   Sorted values.
+     * @param fraction The fraction of values below the percentile.
+     * @return The percentile (nearest rank).
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
@@ -0,0 +1,44 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.common.KeyMaterialGenerator;
+import org.rzats.lnu.cryptography.common.MathUtilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures how fast one-time pads can be generated.
+ */
+public class KeyMaterialBenchmark {
+    private static final int PAD_SIZE = 64 * 1024 * 1024;
+    private static final int LEGACY_PAD_SIZE = 4 * 1024 * 1024;
+
+    private KeyMaterialBenchmark() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        Benchmark.measure("MathUtilities.random (int per byte)", LEGACY_PAD_SIZE,
+            () -> MathUtilities.random(LEGACY_PAD_SIZE, 0, 256));
+
+        byte[] pad = new byte[PAD_SIZE];
+        KeyMaterialGenerator secure = KeyMaterialGenerator.secure();
+        KeyMaterialGenerator fast = KeyMaterialGenerator.fast(42);
+        Benchmark.measure("Secure, in memory", PAD_SIZE, () -> secure.fill(pad, 0, pad.length));
+        Benchmark.measure("Fast (test data), in memory", PAD_SIZE, () -> fast.fill(pad, 0, pad.length));
+
+        Path file = Files.createTempFile("pad", ".bin");
+        try {
+            Benchmark.measure("Secure, mapped file", PAD_SIZE, () -> {
+                try {
+                    secure.generateFile(file, PAD_SIZE);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.common.MathUtilities;
+import org.rzats.lnu.cryptography.common.MontgomeryContext;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Compares modular exponentiation strategies across exponent sizes:
+ * repeated multiplication against square-and-multiply for small moduli,
+ * plain and Montgomery reduction for word-sized moduli,
+ * and schoolbook against Montgomery ({@code modPow}) exponentiation for RSA-sized moduli.
+ */
+public class ModularExponentiationBenchmark {
+    /**
+     * The largest odd modulus for which repeated multiplication does not overflow an {@code int}.
+     */
+    private static final int SMALL_MODULUS = 46337;
+    private static final long WORD_MODULUS = 2147483629L;
+    private static final int WORD_CALLS = 100_000;
+    private static final int BIG_MODULUS_BITS = 2048;
+    private static final int BIG_CALLS = 10;
+
+    private ModularExponentiationBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        for (int exponentBits : new int[]{8, 16, 24}) {
+            int exponent = (1 << exponentBits) - 1;
+            int calls = Math.max(1, (1 << 24) >> exponentBits);
+            long repeated = Benchmark.measure("Repeated multiplication, e = 2^" + exponentBits, () -> {
+                for (int i = 0; i < calls; i++) {
+                    Benchmark.consume(repeatedMultiplication(i + 2, exponent, SMALL_MODULUS));
+                }
+            });
+            long squareAndMultiply = Benchmark.measure("Square-and-multiply, e = 2^" + exponentBits, () -> {
+                for (int i = 0; i < calls; i++) {
+                    Benchmark.consume(MathUtilities.modularExponentiation(i + 2, exponent, SMALL_MODULUS));
+                }
+            });
+            System.out.println(String.format("Speedup: %.1fx", (double) repeated / squareAndMultiply));
+        }
+
+        MontgomeryContext context = new MontgomeryContext(BigInteger.valueOf(WORD_MODULUS));
+        long[] bases = new long[WORD_CALLS];
+        long[] exponents = new long[WORD_CALLS];
+        for (int i = 0; i < WORD_CALLS; i++) {
+            bases[i] = Math.floorMod(random.nextLong(), WORD_MODULUS);
+            exponents[i] = random.nextLong() >>> 1;
+        }
+        Benchmark.measure("Word-sized, division", () -> {
+            for (int i = 0; i < WORD_CALLS; i++) {
+                Benchmark.consume(MathUtilities.modularExponentiation(bases[i], exponents[i], WORD_MODULUS));
+            }
+        });
+        Benchmark.measure("Word-sized, Montgomery", () -> {
+            for (int i = 0; i < WORD_CALLS; i++) {
+                Benchmark.consume(context.pow(bases[i], exponents[i]));
+            }
+        });
+
+        BigInteger modulus = new BigInteger(BIG_MODULUS_BITS, random).setBit(BIG_MODULUS_BITS - 1).setBit(0);
+        BigInteger base = new BigInteger(BIG_MODULUS_BITS - 1, random);
+        for (int exponentBits : new int[]{17, 256, 1024, 2048}) {
+            BigInteger exponent = new BigInteger(exponentBits, random).setBit(exponentBits - 1);
+            long schoolbook = Benchmark.measure("Schoolbook, " + exponentBits + "-bit exponent", () -> {
+                for (int i = 0; i < BIG_CALLS; i++) {
+                    Benchmark.consume(schoolbook(base, exponent, modulus).intValue());
+                }
+            });
+            long montgomery = Benchmark.measure("Montgomery, " + exponentBits + "-bit exponent", () -> {
+                for (int i = 0; i < BIG_CALLS; i++) {
+                    Benchmark.consume(MathUtilities.modularExponentiation(base, exponent, modulus).intValue());
+                }
+            });
+            System.out.println(String.format("Speedup: %.1fx", (double) schoolbook / montgomery));
+        }
+    }
+
+    /**
+     * The modular exponentiation used before square-and-multiply.
+     */
+    private static int repeatedMultiplication(int d, int e, int m) {
+        int c = 1;
+
+        for (int i = 0; i < e; i++) {
+            c = ((c * d) % m);
+        }
+
+        return c;
+    }
+
+    /**
+     * Square-and-multiply with a full division after every multiplication.
+     */
+    private static BigInteger schoolbook(BigInteger d, BigInteger e, BigInteger m) {
+        BigInteger c = BigInteger.ONE;
+        for (int i = e.bitLength() - 1; i >= 0; i--) {
+            c = c.multiply(c).mod(m);
+            if (e.testBit(i)) {
+                c = c.multiply(d).mod(m);
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,62 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.common.MathUtilities;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Compares inverting many values one at a time with batch inversion (Montgomery's trick),
+ * for a word-sized and a 2048-bit prime modulus.
+ */
+public class ModularInverseBenchmark {
+    private static final long WORD_MODULUS = 2147483629L;
+    private static final int WORD_VALUES = 1_000_000;
+    private static final int BIG_MODULUS_BITS = 2048;
+    private static final int BIG_VALUES = 10_000;
+
+    private ModularInverseBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        long[] values = new long[WORD_VALUES];
+        for (int i = 0; i < WORD_VALUES; i++) {
+            values[i] = 1 + random.nextInt((int) WORD_MODULUS - 1);
+        }
+        long[] inverses = new long[WORD_VALUES];
+
+        long single = Benchmark.measure(WORD_VALUES + " word-sized inverses, one at a time", () -> {
+            long sum = 0;
+            for (long value : values) {
+                sum += MathUtilities.modularMultiplicativeInverse(value, WORD_MODULUS);
+            }
+            Benchmark.consume(sum);
+        });
+        long batch = Benchmark.measure(WORD_VALUES + " word-sized inverses, batch", () -> {
+            MathUtilities.batchModularInverse(values, WORD_MODULUS, inverses);
+            Benchmark.consume(inverses[0]);
+        });
+        System.out.println(String.format("Speedup: %.1fx", (double) single / batch));
+
+        BigInteger modulus = BigInteger.probablePrime(BIG_MODULUS_BITS, random);
+        BigInteger[] bigValues = new BigInteger[BIG_VALUES];
+        for (int i = 0; i < BIG_VALUES; i++) {
+            bigValues[i] = new BigInteger(BIG_MODULUS_BITS - 1, random).add(BigInteger.ONE);
+        }
+
+        long bigSingle = Benchmark.measure(BIG_VALUES + " 2048-bit inverses, one at a time", () -> {
+            long sum = 0;
+            for (BigInteger value : bigValues) {
+                sum += MathUtilities.modularMultiplicativeInverse(value, modulus).intValue();
+            }
+            Benchmark.consume(sum);
+        });
+        long bigBatch = Benchmark.measure(BIG_VALUES + " 2048-bit inverses, batch", () -> {
+            Benchmark.consume(MathUtilities.batchModularInverse(bigValues, modulus)[0].intValue());
+        });
+        System.out.println(String.format("Speedup: %.1fx", (double) bigSingle / bigBatch));
+    }
+}
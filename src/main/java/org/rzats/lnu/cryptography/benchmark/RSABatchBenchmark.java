@@ -0,0 +1,67 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.cryptosystem.RSABatchService;
+import org.rzats.lnu.cryptography.cryptosystem.RSACryptosystem;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how batch RSA decryption of 10,000 small messages scales with the amount of worker threads.
+ */
+public class RSABatchBenchmark {
+    private static final int KEY_BITS = 1024;
+    private static final int MESSAGES = 10_000;
+    private static final int MESSAGE_SIZE = 32;
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    private RSABatchBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        RSACryptosystem rsa = new RSACryptosystem(
+            BigInteger.probablePrime(KEY_BITS / 2, random),
+            BigInteger.probablePrime(KEY_BITS / 2, random),
+            BigInteger.valueOf(65537));
+
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            byte[] message = new byte[MESSAGE_SIZE];
+            random.nextBytes(message);
+            messages.add(message);
+        }
+        List<byte[]> ciphertexts = new RSABatchService(rsa).encryptAll(messages).join();
+
+        long sequential = Benchmark.measure("Sequential decryption", () -> {
+            for (byte[] ciphertext : ciphertexts) {
+                Benchmark.consume(rsa.decrypt(ciphertext).length);
+            }
+        });
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            RSABatchService service = new RSABatchService(rsa, pool, MAX_IN_FLIGHT);
+
+            List<byte[]> plaintexts = service.decryptAll(ciphertexts).join();
+            for (int i = 0; i < MESSAGES; i++) {
+                if (!Arrays.equals(plaintexts.get(i), messages.get(i))) {
+                    throw new IllegalStateException("Batch decryption does not preserve the message order");
+                }
+            }
+
+            long batch = Benchmark.measure("Batch decryption, " + threads + " thread(s)",
+                () -> Benchmark.consume(service.decryptAll(ciphertexts).join().size()));
+            System.out.println(String.format("%.0f messages/s, speedup: %.1fx",
+                MESSAGES / (batch / 1e9), (double) sequential / batch));
+
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.cryptosystem.RSACryptosystem;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Compares RSA decryption with a single exponentiation modulo n against CRT decryption
+ * for 2048, 3072 and 4096-bit keys, and encrypting a message one byte per block against packed blocks.
+ */
+public class RSABenchmark {
+    private static final BigInteger PUBLIC_KEY = BigInteger.valueOf(65537);
+    private static final int CIPHERTEXTS = 20;
+    private static final int MESSAGE_SIZE = 1024;
+
+    private RSABenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        for (int bits : new int[]{2048, 3072, 4096}) {
+            BigInteger p;
+            BigInteger q;
+            do {
+                p = BigInteger.probablePrime(bits / 2, random);
+                q = BigInteger.probablePrime(bits / 2, random);
+            } while (p.equals(q)
+                || !PUBLIC_KEY.gcd(p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE))).equals(BigInteger.ONE));
+
+            RSACryptosystem rsa = new RSACryptosystem(p, q, PUBLIC_KEY);
+            BigInteger modulus = rsa.getModulus();
+            BigInteger privateKey = PUBLIC_KEY.modInverse(p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE)));
+
+            BigInteger[] ciphertexts = new BigInteger[CIPHERTEXTS];
+            for (int i = 0; i < CIPHERTEXTS; i++) {
+                BigInteger plaintext = new BigInteger(modulus.bitLength() - 1, random);
+                ciphertexts[i] = rsa.encrypt(plaintext);
+                if (!rsa.decrypt(ciphertexts[i]).equals(plaintext)) {
+                    throw new IllegalStateException("CRT decryption does not match the plaintext");
+                }
+            }
+
+            long plain = Benchmark.measure(bits + "-bit decryption, modPow", () -> {
+                for (BigInteger ciphertext : ciphertexts) {
+                    Benchmark.consume(ciphertext.modPow(privateKey, modulus).intValue());
+                }
+            });
+            long crt = Benchmark.measure(bits + "-bit decryption, CRT", () -> {
+                for (BigInteger ciphertext : ciphertexts) {
+                    Benchmark.consume(rsa.decrypt(ciphertext).intValue());
+                }
+            });
+
+            System.out.println(String.format("%.1f vs %.1f decryptions/s, speedup: %.1fx",
+                CIPHERTEXTS / (plain / 1e9), CIPHERTEXTS / (crt / 1e9), (double) plain / crt));
+
+            if (bits == 2048) {
+                measurePacking(rsa);
+            }
+        }
+    }
+
+    private static void measurePacking(RSACryptosystem rsa) {
+        byte[] message = Benchmark.randomText(MESSAGE_SIZE);
+
+        long perByte = Benchmark.measure("1 KB round trip, one byte per block", () -> {
+            for (byte b : message) {
+                Benchmark.consume(rsa.decrypt(rsa.encrypt(BigInteger.valueOf(b & 0xFF))).intValue());
+            }
+        });
+        long packed = Benchmark.measure("1 KB round trip, packed blocks", () -> {
+            Benchmark.consume(rsa.decrypt(rsa.encrypt(message)).length);
+        });
+
+        System.out.println(String.format("%d vs %d exponentiations per direction, speedup: %.1fx",
+            MESSAGE_SIZE, (MESSAGE_SIZE + rsa.getBlockCapacity() - 1) / rsa.getBlockCapacity(), (double) perByte / packed));
+    }
+}
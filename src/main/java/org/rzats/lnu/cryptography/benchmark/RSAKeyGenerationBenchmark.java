@@ -0,0 +1,54 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.common.KeyMaterialGenerator;
+import org.rzats.lnu.cryptography.cryptosystem.RSACryptosystem;
+import org.rzats.lnu.cryptography.cryptosystem.RSAKeyGenerator;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+/**
+ * Compares the sieving, parallel RSA key generator with looking for both primes sequentially
+ * through {@link BigInteger#probablePrime}, for 2048-bit keys.
+ */
+public class RSAKeyGenerationBenchmark {
+    private static final int KEY_BITS = 2048;
+    private static final int KEYS = 5;
+
+    private RSAKeyGenerationBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        SecureRandom random = KeyMaterialGenerator.secureRandom();
+        RSAKeyGenerator generator = new RSAKeyGenerator(KEY_BITS);
+
+        long sequential = Benchmark.measure("Sequential probablePrime", () -> {
+            for (int i = 0; i < KEYS; i++) {
+                RSACryptosystem rsa;
+                do {
+                    rsa = tryKeyPair(random);
+                } while (rsa == null);
+                Benchmark.consume(rsa.getModulus().bitLength());
+            }
+        });
+        long parallel = Benchmark.measure("Sieve and parallel Miller-Rabin", () -> {
+            for (int i = 0; i < KEYS; i++) {
+                Benchmark.consume(generator.generate().getModulus().bitLength());
+            }
+        });
+
+        System.out.println(String.format("%.0f vs %.0f key pairs/hour, speedup: %.1fx",
+            KEYS * 3600 / (sequential / 1e9), KEYS * 3600 / (parallel / 1e9), (double) sequential / parallel));
+    }
+
+    private static RSACryptosystem tryKeyPair(SecureRandom random) {
+        BigInteger p = BigInteger.probablePrime(KEY_BITS / 2, random);
+        BigInteger q = BigInteger.probablePrime(KEY_BITS / 2, random);
+        BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+        if (p.equals(q) || !RSAKeyGenerator.DEFAULT_PUBLIC_KEY.gcd(phi).equals(BigInteger.ONE)) {
+            return null;
+        }
+        return new RSACryptosystem(p, q, RSAKeyGenerator.DEFAULT_PUBLIC_KEY);
+    }
+}
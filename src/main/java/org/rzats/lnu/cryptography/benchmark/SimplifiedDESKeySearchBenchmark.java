@@ -0,0 +1,58 @@
+package org.rzats.lnu.cryptography.benchmark;
+
+import org.rzats.lnu.cryptography.ciphers.SimplifiedDESCipher;
+import org.rzats.lnu.cryptography.cryptanalysis.SimplifiedDESKeySearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the bitsliced S-DES key search with trying every key one at a time.
+ */
+public class SimplifiedDESKeySearchBenchmark {
+    private static final int PAIRS = 5000;
+    private static final int KEY = 0b1100110001;
+
+    private SimplifiedDESKeySearchBenchmark() {
+
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        SimplifiedDESCipher cipher = new SimplifiedDESCipher(KEY);
+        int[] plaintexts = new int[PAIRS];
+        int[] ciphertexts = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            plaintexts[i] = random.nextInt(256);
+            ciphertexts[i] = cipher.encryptBlock(plaintexts[i]);
+        }
+
+        System.out.println("Naive search: " + naiveSearch(plaintexts, ciphertexts));
+        System.out.println("Bitsliced search: " + SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts));
+
+        long naive = Benchmark.measure("Naive search", () -> naiveSearch(plaintexts, ciphertexts));
+        long bitsliced = Benchmark.measure("Bitsliced search",
+            () -> SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts));
+
+        System.out.println(String.format("Speedup: %.1fx", (double) naive / bitsliced));
+    }
+
+    /**
+     * Builds a cipher for every key and checks it against every pair.
+     */
+    private static List<Integer> naiveSearch(int[] plaintexts, int[] ciphertexts) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < 1024; key++) {
+            SimplifiedDESCipher candidate = new SimplifiedDESCipher(key);
+            boolean matches = true;
+            for (int i = 0; i < plaintexts.length && matches; i++) {
+                matches = candidate.encryptBlock(plaintexts[i]) == ciphertexts[i];
+            }
+            if (matches) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,19 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+/**
+ * A mode of operation, which describes how a block cipher is applied to a message longer than one block.
+ */
+public enum BlockMode {
+    /**
+     * Electronic codebook - every block is encrypted independently.
+     */
+    ECB,
+    /**
+     * Cipher block chaining - every plaintext block is combined with the previous ciphertext block (or the IV).
+     */
+    CBC,
+    /**
+     * Counter - the message is combined with the encryptions of consecutive counter values, starting at a nonce.
+     */
+    CTR
+}
@@ -0,0 +1,180 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * A rail-fence cipher that transposes fixed-size blocks of a message independently.
+ * <p>
+ * Each block is written as a frame: a 4-byte big-endian length followed by the transposed block.
+ * Every block except the last one is full, so the frame of any block can be located without reading the others,
+ * the message can be encrypted as it arrives, and the frames can be decrypted in parallel.
+ */
+public class BlockRailFenceCipher {
+    /**
+     * The length of the header preceding each block.
+     */
+    public static final int HEADER_LENGTH = 4;
+
+    /**
+     * The cipher applied to each block.
+     */
+    private final RailFenceCipher cipher;
+    /**
+     * The maximum length of a block.
+     */
+    private final int blockSize;
+
+    public BlockRailFenceCipher(int fenceHeight, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The block size must be positive!");
+        }
+
+        this.cipher = new RailFenceCipher(fenceHeight);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Calculates where the frame of a given block starts in the ciphertext.
+     *
+     * @param block The index of the block.
+     * @return The offset of the block's frame.
+     */
+    public long frameOffset(long block) {
+        return block * (HEADER_LENGTH + blockSize);
+    }
+
+    /**
+     * Encrypts everything remaining in an input stream block by block. Neither stream is closed.
+     *
+     * @param plaintext  The stream to read the message from.
+     * @param ciphertext The stream to write the frames to.
+     * @throws IOException If reading or writing fails.
+     */
+    public void encrypt(InputStream plaintext, OutputStream ciphertext) throws IOException {
+        DataOutputStream output = new DataOutputStream(ciphertext);
+        byte[] block = new byte[blockSize];
+
+        int length;
+        while ((length = readBlock(plaintext, block)) > 0) {
+            cipher.encrypt(block, 0, length);
+            output.writeInt(length);
+            output.write(block, 0, length);
+        }
+        output.flush();
+    }
+
+    /**
+     * Decrypts the frames remaining in an input stream. Neither stream is closed.
+     * <p>
+     * To start at a given block, skip {@link #frameOffset(long)} bytes of the ciphertext first.
+     * A short block that isn't the last one is rejected, after the blocks before it have been written.
+     *
+     * @param ciphertext The stream to read the frames from.
+     * @param plaintext  The stream to write the original message to.
+     * @throws IOException If reading or writing fails, or a frame is malformed.
+     */
+    public void decrypt(InputStream ciphertext, OutputStream plaintext) throws IOException {
+        DataInputStream input = new DataInputStream(ciphertext);
+        byte[] block = new byte[blockSize];
+
+        int previous = blockSize;
+        int first;
+        while ((first = input.read()) != -1) {
+            // Only the last block may be short, so anything after one means the input was truncated or spliced.
+            if (previous < blockSize) {
+                throw new IOException("Malformed block frame: a block of " + previous + " bytes isn't the last one");
+            }
+
+            int length = (first << 24) | (input.readUnsignedByte() << 16) | input.readUnsignedShort();
+            checkLength(length);
+            previous = length;
+
+            input.readFully(block, 0, length);
+            cipher.decrypt(block, 0, length);
+            plaintext.write(block, 0, length);
+        }
+        plaintext.flush();
+    }
+
+    /**
+     * Decrypts all the remaining frames of a buffer, decrypting the blocks in parallel.
+     * The positions of both buffers are advanced past the processed bytes.
+     *
+     * @param ciphertext The frames to decrypt.
+     * @param plaintext  The buffer to write the original message to.
+     */
+    public void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+        // Locate the frames first - this only reads the headers.
+        int frames = (int) ((ciphertext.remaining() + frameOffset(1) - 1) / frameOffset(1));
+        if (frames == 0) {
+            return;
+        }
+
+        int[] lengths = new int[frames];
+        int total = 0;
+        for (int i = 0; i < frames; i++) {
+            int offset = ciphertext.position() + (int) frameOffset(i);
+            if (ciphertext.limit() - offset < HEADER_LENGTH) {
+                throw new BufferUnderflowException();
+            }
+
+            lengths[i] = ciphertext.getInt(offset);
+            if (lengths[i] < 1 || lengths[i] > blockSize
+                || (i < frames - 1 && lengths[i] != blockSize)
+                || ciphertext.limit() - offset - HEADER_LENGTH < lengths[i]) {
+                throw new IllegalArgumentException("Malformed block frame at offset " + offset);
+            }
+            total += lengths[i];
+        }
+        if (plaintext.remaining() < total) {
+            throw new BufferOverflowException();
+        }
+
+        IntStream.range(0, frames).parallel().forEach(i -> {
+            ByteBuffer source = ciphertext.duplicate();
+            source.position(ciphertext.position() + (int) frameOffset(i) + HEADER_LENGTH);
+            source.limit(source.position() + lengths[i]);
+
+            ByteBuffer destination = plaintext.duplicate();
+            destination.position(plaintext.position() + i * blockSize);
+            cipher.decrypt(source, destination);
+        });
+
+        ciphertext.position(ciphertext.position() + (int) frameOffset(frames - 1) + HEADER_LENGTH + lengths[frames - 1]);
+        plaintext.position(plaintext.position() + total);
+    }
+
+    private void checkLength(int length) throws IOException {
+        if (length < 1 || length > blockSize) {
+            throw new IOException("Malformed block frame: invalid block length " + length);
+        }
+    }
+
+    /**
+     * Reads the next block of a stream, filling it unless the stream ends first.
+     *
+     * @param input The stream.
+     * @param block The array to read the block into.
+     * @return The length of the block (0 if the stream has ended).
+     * @throws IOException If reading fails.
+     */
+    private static int readBlock(InputStream input, byte[] block) throws IOException {
+        int length = 0;
+        while (length < block.length) {
+            int read = input.read(block, length, block.length - length);
+            if (read == -1) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+}
@@ -1,32 +1,108 @@
 package org.rzats.lnu.cryptography.ciphers;
 
+import org.rzats.lnu.cryptography.common.MontgomeryContext;
+import org.rzats.lnu.cryptography.common.ParallelUtilities;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * A pseudorandom number generator.
  * <p>
  * Encrypts the ith element in the input array using a bitwise XOR with the ith element of the BBS sequence.
+ * <p>
+ * The generator squares modulo M using a {@code MontgomeryContext}, so moduli below 2^31 never need a division,
+ * and larger moduli are supported through {@code BigInteger} arithmetic.
+ * <p>
+ * The state before step i is x0^(2^i) (mod M), and since x0 is co-prime to M, the exponent can be reduced
+ * modulo the Carmichael function λ(M) = lcm(p-1, q-1). This allows jumping to any position of the sequence
+ * in O(log M) multiplications, which is used to generate long sequences in independent segments in parallel.
+ * <p>
+ * By default, one bit (the lowest one) is kept from each state. Up to log2(log2 M) of the lowest bits
+ * can be kept instead, multiplying the throughput of the generator for large moduli.
  */
-public class BlumBlumShubCipher implements Cipher {
+public class BlumBlumShubCipher implements StreamingCipher {
+    /**
+     * For each byte b, a word with bit i of b moved into the lowest bit of byte i.
+     */
+    private static final long[] SPREAD = new long[256];
+
+    static {
+        for (int b = 0; b < SPREAD.length; b++) {
+            for (int i = 0; i < Byte.SIZE; i++) {
+                SPREAD[b] |= (long) ((b >>> i) & 1) << (Byte.SIZE * i);
+            }
+        }
+    }
+
+    /**
+     * The size of the segments long sequences are generated in, in bits.
+     */
+    private static final int SEGMENT_BITS = 1 << 16;
+
     /**
-     * A product of two distinct prime numbers (p*q), where p ≡ q ≡ 3 mod 4.
+     * Arithmetic modulo a product of two distinct prime numbers (p*q), where p ≡ q ≡ 3 mod 4.
      */
-    private int modulus;
+    private final MontgomeryContext context;
     /**
      * The seed for the generator.
      */
-    private int seed;
+    private final BigInteger seed;
+    /**
+     * The Carmichael function of the modulus, λ(M) = lcm(p-1, q-1).
+     */
+    private final BigInteger lambda;
+    /**
+     * The initial state, x0 = seed^2 (mod M).
+     */
+    private final BigInteger initialState;
+    /**
+     * The amount of the lowest bits of each state kept in the sequence.
+     */
+    private final int bitsPerStep;
 
     public BlumBlumShubCipher(int p, int q, int x) {
+        this(BigInteger.valueOf(p), BigInteger.valueOf(q), BigInteger.valueOf(x));
+    }
+
+    public BlumBlumShubCipher(BigInteger p, BigInteger q, BigInteger x) {
+        this(p, q, x, 1);
+    }
+
+    /**
+     * @param p           A prime number congruent to 3 mod 4.
+     * @param q           Another prime number congruent to 3 mod 4.
+     * @param x           The seed, co-prime to p*q.
+     * @param bitsPerStep The amount of the lowest bits of each state to keep, between 1 and log2(log2(p*q)).
+     */
+    public BlumBlumShubCipher(BigInteger p, BigInteger q, BigInteger x, int bitsPerStep) {
         // Compute n = p*q.
-        this.modulus = p * q;
+        this.context = new MontgomeryContext(p.multiply(q));
         this.seed = x;
+
+        if (bitsPerStep < 1 || bitsPerStep > maxBitsPerStep(context.getModulus())) {
+            throw new IllegalArgumentException("At most log2(log2 M) bits can be kept from each state!");
+        }
+        this.bitsPerStep = bitsPerStep;
+
+        if (!x.gcd(context.getModulus()).equals(BigInteger.ONE)) {
+            throw new IllegalArgumentException("The seed must be co-prime to the modulus!");
+        }
+
+        BigInteger pMinusOne = p.subtract(BigInteger.ONE);
+        BigInteger qMinusOne = q.subtract(BigInteger.ONE);
+        this.lambda = pMinusOne.multiply(qMinusOne).divide(pMinusOne.gcd(qMinusOne));
+        this.initialState = seed.multiply(seed).mod(context.getModulus());
     }
 
     @Override
     public int[] encrypt(int[] plaintext) {
-        int[] result = generateSequence(plaintext.length);
+        Generator generator = new Generator();
+        int[] result = new int[plaintext.length];
 
         for (int i = 0; i < plaintext.length; i++) {
-            result[i] ^= plaintext[i];
+            result[i] = plaintext[i] ^ generator.nextBit();
         }
 
         return result;
@@ -34,30 +110,260 @@ public class BlumBlumShubCipher implements Cipher {
 
     @Override
     public int[] decrypt(int[] ciphertext) {
-        int[] result = generateSequence(ciphertext.length);
+        // XOR is its' own inverse.
+        return encrypt(ciphertext);
+    }
 
-        for (int i = 0; i < ciphertext.length; i++) {
-            result[i] ^= ciphertext[i];
-        }
+    /**
+     * Encrypts a message in place, generating the keystream for large messages in parallel segments.
+     */
+    @Override
+    public void encrypt(byte[] data, int offset, int length) {
+        inSegments(length, (from, to) -> {
+            Keystream keystream = new Keystream();
+            keystream.seek(from);
+            keystream.apply(data, offset + from, to - from);
+        });
+    }
 
-        return result;
+    @Override
+    public void decrypt(byte[] data, int offset, int length) {
+        // XOR is its' own inverse.
+        encrypt(data, offset, length);
+    }
+
+    @Override
+    public Keystream newEncryptor() {
+        return new Keystream();
+    }
+
+    @Override
+    public Keystream newDecryptor() {
+        // XOR is its' own inverse.
+        return new Keystream();
     }
 
     /**
      * Create a pseudorandom sequence of bits using the BBS formula.
      *
      * @param length The length of the sequence.
-     * @return The sequence.
+     * @return The sequence, one bit per element.
      */
     public int[] generateSequence(int length) {
         int[] result = new int[length];
-        int x = (int) Math.pow(seed, 2) % modulus;
 
-        for (int i = 0; i < length; i++) {
-            x = (int) Math.pow(x, 2) % modulus;
-            result[i] = x % 2;
-        }
+        inSegments(length, (from, to) -> {
+            Generator generator = new Generator(from);
+            for (int i = from; i < to; i++) {
+                result[i] = generator.nextBit();
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Create a pseudorandom sequence of bits using the BBS formula, packed into words.
+     *
+     * @param length The length of the sequence in bits.
+     * @return The sequence - bit i is the (i mod 64)th lowest bit of word i/64.
+     */
+    public long[] generateBits(int length) {
+        long[] result = new long[(length + Long.SIZE - 1) / Long.SIZE];
+
+        // The segments are a multiple of 64 bits long, so they never share a word.
+        inSegments(length, (from, to) -> {
+            Generator generator = new Generator(from);
+            for (int i = from; i < to; i++) {
+                result[i / Long.SIZE] |= (long) generator.nextBit() << (i % Long.SIZE);
+            }
+        });
 
         return result;
     }
+
+    /**
+     * Create a pseudorandom sequence of bits using the BBS formula, packed into bytes.
+     *
+     * @param length The length of the sequence in bytes.
+     * @return The sequence - bit i is the (i mod 8)th lowest bit of byte i/8.
+     */
+    public byte[] generateBytes(int length) {
+        byte[] result = new byte[length];
+
+        inSegments(length, Byte.SIZE, (from, to) -> {
+            Generator generator = new Generator((long) from * Byte.SIZE);
+            for (int i = from; i < to; i++) {
+                result[i] = (byte) generator.nextBits(Byte.SIZE);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Calculates how many bits of each state can be kept for a given modulus.
+     *
+     * @param modulus The modulus.
+     * @return floor(log2(log2 M)), but at least 1.
+     */
+    public static int maxBitsPerStep(BigInteger modulus) {
+        int log2 = modulus.bitLength() - 1;
+        return Math.max(1, 31 - Integer.numberOfLeadingZeros(log2));
+    }
+
+    private static void inSegments(int length, ParallelUtilities.RangeProcessor processor) {
+        inSegments(length, 1, processor);
+    }
+
+    /**
+     * Splits a sequence into segments of {@code SEGMENT_BITS} bits, processed in parallel if there is more than one.
+     *
+     * @param length      The length of the sequence, in elements.
+     * @param elementBits The amount of bits per element.
+     * @param processor   Processes the elements in the range [from, to).
+     */
+    private static void inSegments(int length, int elementBits, ParallelUtilities.RangeProcessor processor) {
+        ParallelUtilities.inChunks(length, SEGMENT_BITS / elementBits, processor);
+    }
+
+    /**
+     * The state of a BBS sequence.
+     */
+    private class Generator {
+        /**
+         * The current state, in Montgomery form (word-sized moduli).
+         */
+        private long x;
+        /**
+         * The current state (other moduli).
+         */
+        private BigInteger bigX;
+        /**
+         * The bits of the current state that haven't been output yet, the next one being the lowest.
+         */
+        private int buffer;
+        /**
+         * The amount of bits left in the buffer.
+         */
+        private int buffered;
+
+        Generator() {
+            setState(initialState);
+        }
+
+        /**
+         * @param index The index of the first bit to be generated.
+         */
+        Generator(long index) {
+            seek(index);
+        }
+
+        /**
+         * Jumps to a given position of the sequence.
+         *
+         * @param index The index of the next bit to be generated.
+         */
+        void seek(long index) {
+            long step = index / bitsPerStep;
+            BigInteger exponent = BigInteger.valueOf(2).modPow(BigInteger.valueOf(step), lambda);
+            setState(initialState.modPow(exponent, context.getModulus()));
+
+            // Skip the bits of the step that precede the index.
+            for (long i = step * bitsPerStep; i < index; i++) {
+                nextBit();
+            }
+        }
+
+        private void setState(BigInteger state) {
+            buffered = 0;
+
+            if (context.isWordSized()) {
+                x = context.toMontgomery(state.longValue());
+            } else {
+                bigX = state;
+            }
+        }
+
+        /**
+         * Outputs the next bit of the sequence, advancing the generator by one step if needed.
+         *
+         * @return The next bit.
+         */
+        int nextBit() {
+            if (buffered == 0) {
+                step();
+            }
+
+            int bit = buffer & 1;
+            buffer >>>= 1;
+            buffered--;
+            return bit;
+        }
+
+        /**
+         * Advances the generator by one step and buffers the lowest bits of x^2 (mod M).
+         */
+        private void step() {
+            int mask = (1 << bitsPerStep) - 1;
+            if (context.isWordSized()) {
+                x = context.square(x);
+                buffer = (int) context.fromMontgomery(x) & mask;
+            } else {
+                bigX = context.square(bigX);
+                buffer = bigX.intValue() & mask;
+            }
+            buffered = bitsPerStep;
+        }
+
+        /**
+         * Outputs several bits of the sequence.
+         *
+         * @param count The amount of bits (at most 32).
+         * @return The generated bits, the first one being the lowest.
+         */
+        int nextBits(int count) {
+            int bits = 0;
+            for (int i = 0; i < count; i++) {
+                bits |= nextBit() << i;
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * A keystream XOR that keeps the generator state between chunks, and can jump to any position of the message.
+     * <p>
+     * Each byte is XORed with one bit, so 8 bits at a time are spread over a word and XORed with 8 bytes at once.
+     */
+    public class Keystream implements Transformation {
+        private final Generator generator = new Generator();
+
+        private Keystream() {
+
+        }
+
+        /**
+         * Jumps to a given position of the message, e.g. to decrypt the end of a file without processing the rest.
+         *
+         * @param position The index of the next byte to be transformed.
+         */
+        public void seek(long position) {
+            generator.seek(position);
+        }
+
+        @Override
+        public void apply(byte[] data, int offset, int length) {
+            ByteBuffer words = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            int end = offset + length;
+
+            int i = offset;
+            for (; i + Long.BYTES <= end; i += Long.BYTES) {
+                words.putLong(i, words.getLong(i) ^ SPREAD[generator.nextBits(Byte.SIZE)]);
+            }
+            for (; i < end; i++) {
+                data[i] ^= generator.nextBit();
+            }
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Designates a class that can encrypt a message of byte-sized characters and decrypt it into its' original form,
+ * without widening it into an {@code int[]}.
+ * <p>
+ * Each call processes one whole message. Both heap and direct buffers are supported.
+ */
+public interface ByteCipher {
+    /**
+     * Encrypts the remaining bytes of a buffer into another buffer.
+     * The positions of both buffers are advanced past the processed bytes.
+     *
+     * @param plaintext  The message to encrypt.
+     * @param ciphertext The buffer to write the encrypted message to.
+     * @throws java.nio.BufferOverflowException If {@code ciphertext} has less space remaining than the message length.
+     */
+    public void encrypt(ByteBuffer plaintext, ByteBuffer ciphertext);
+
+    /**
+     * Decrypts the remaining bytes of a buffer into another buffer.
+     * The positions of both buffers are advanced past the processed bytes.
+     *
+     * @param ciphertext The message to decrypt.
+     * @param plaintext  The buffer to write the original message to.
+     * @throws java.nio.BufferOverflowException If {@code plaintext} has less space remaining than the message length.
+     */
+    public void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext);
+
+    /**
+     * Encrypts a message in place.
+     *
+     * @param data   The array holding the message.
+     * @param offset The index of the first byte of the message.
+     * @param length The length of the message.
+     */
+    public void encrypt(byte[] data, int offset, int length);
+
+    /**
+     * Decrypts a message in place.
+     *
+     * @param data   The array holding the message.
+     * @param offset The index of the first byte of the message.
+     * @param length The length of the message.
+     */
+    public void decrypt(byte[] data, int offset, int length);
+}
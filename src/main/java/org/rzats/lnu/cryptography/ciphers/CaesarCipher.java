@@ -7,15 +7,36 @@ import org.rzats.lnu.cryptography.common.MathUtilities;
  * A simple substitution cipher.
  * <p>
  * Each letter in the plaintext is replaced by a letter some fixed number of positions down the alphabet.
+ * Only ASCII letters are shifted - every other character, including non-ASCII letters, is left unchanged,
+ * so {@code int[]} and byte messages are encrypted alike.
  */
-public class CaesarCipher implements Cipher {
+public class CaesarCipher implements StreamingCipher {
     /**
      * The right shift parameter - acts as a key.
      */
     private int shift;
+    /**
+     * The ciphertext character for each byte-sized plaintext character.
+     */
+    private final byte[] encryptionTable = new byte[TABLE_SIZE];
+    /**
+     * The plaintext character for each byte-sized ciphertext character.
+     */
+    private final byte[] decryptionTable = new byte[TABLE_SIZE];
+
+    /**
+     * The amount of characters covered by the translation tables.
+     */
+    private static final int TABLE_SIZE = 256;
 
     public CaesarCipher(int shift) {
         this.shift = shift;
+
+        // Precompute the translation tables, so that each character is a single lookup.
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            encryptionTable[c] = (byte) shiftASCII(c, shift);
+            decryptionTable[c] = (byte) shiftASCII(c, -shift);
+        }
     }
 
     @Override
@@ -23,18 +44,7 @@ public class CaesarCipher implements Cipher {
         int[] ciphertext = new int[plaintext.length];
 
         for (int i = 0; i < plaintext.length; i++) {
-            // If the character is alphabetic, encrypt it, otherwise add it to the ciphertext unchanged
-            if (Character.isAlphabetic(plaintext[i])) {
-                if (Character.isUpperCase(plaintext[i])) {
-                    ciphertext[i] = CryptoConstants.ASCII_A_UPPERCASE
-                            + MathUtilities.modulo(plaintext[i] - CryptoConstants.ASCII_A_UPPERCASE + shift, CryptoConstants.ALPHABET_SIZE);
-                } else {
-                    ciphertext[i] = CryptoConstants.ASCII_A_LOWERCASE
-                            + MathUtilities.modulo(plaintext[i] - CryptoConstants.ASCII_A_LOWERCASE + shift, CryptoConstants.ALPHABET_SIZE);
-                }
-            } else {
-                ciphertext[i] = plaintext[i];
-            }
+            ciphertext[i] = translate(plaintext[i], encryptionTable);
         }
 
         return ciphertext;
@@ -45,20 +55,79 @@ public class CaesarCipher implements Cipher {
         int[] plaintext = new int[ciphertext.length];
 
         for (int i = 0; i < ciphertext.length; i++) {
-            // If the character is alphabetic, decrypt it, otherwise add it to the plaintext unchanged
-            if (Character.isAlphabetic(ciphertext[i])) {
-                if (Character.isUpperCase(ciphertext[i])) {
-                    plaintext[i] = CryptoConstants.ASCII_A_UPPERCASE
-                            + MathUtilities.modulo(ciphertext[i] - CryptoConstants.ASCII_A_UPPERCASE - shift, CryptoConstants.ALPHABET_SIZE);
-                } else {
-                    plaintext[i] = CryptoConstants.ASCII_A_LOWERCASE
-                            + MathUtilities.modulo(ciphertext[i] - CryptoConstants.ASCII_A_LOWERCASE - shift, CryptoConstants.ALPHABET_SIZE);
-                }
-            } else {
-                plaintext[i] = ciphertext[i];
-            }
+            plaintext[i] = translate(ciphertext[i], decryptionTable);
         }
 
         return plaintext;
     }
+
+    @Override
+    public Transformation newEncryptor() {
+        return (data, offset, length) -> {
+            for (int i = offset; i < offset + length; i++) {
+                data[i] = encryptionTable[data[i] & 0xFF];
+            }
+        };
+    }
+
+    @Override
+    public Transformation newDecryptor() {
+        return (data, offset, length) -> {
+            for (int i = offset; i < offset + length; i++) {
+                data[i] = decryptionTable[data[i] & 0xFF];
+            }
+        };
+    }
+
+    /**
+     * Looks a byte-sized character up in a translation table. Larger characters aren't ASCII letters,
+     * so they are left unchanged.
+     *
+     * @param character The character to translate.
+     * @param table     The translation table.
+     * @return The translated character.
+     */
+    private static int translate(int character, byte[] table) {
+        if (character >= 0 && character < TABLE_SIZE) {
+            return table[character] & 0xFF;
+        }
+
+        return character;
+    }
+
+    /**
+     * Shifts a single character down the alphabet if it's an ASCII letter, and leaves it unchanged otherwise.
+     * <p>
+     * Non-ASCII letters are never mapped into the ASCII range,
+     * so that messages in any ASCII-compatible encoding (e.g. UTF-8) decrypt into their original form.
+     *
+     * @param character The character to shift.
+     * @param shift     The shift distance (negative to shift up the alphabet).
+     * @return The shifted character.
+     */
+    static int shiftASCII(int character, int shift) {
+        if (character >= CryptoConstants.ASCII_A_UPPERCASE
+            && character < CryptoConstants.ASCII_A_UPPERCASE + CryptoConstants.ALPHABET_SIZE) {
+            return CryptoConstants.ASCII_A_UPPERCASE
+                + MathUtilities.modulo(character - CryptoConstants.ASCII_A_UPPERCASE + shift, CryptoConstants.ALPHABET_SIZE);
+        }
+        if (character >= CryptoConstants.ASCII_A_LOWERCASE
+            && character < CryptoConstants.ASCII_A_LOWERCASE + CryptoConstants.ALPHABET_SIZE) {
+            return CryptoConstants.ASCII_A_LOWERCASE
+                + MathUtilities.modulo(character - CryptoConstants.ASCII_A_LOWERCASE + shift, CryptoConstants.ALPHABET_SIZE);
+        }
+
+        return character;
+    }
+
+    /**
+     * @param character A character.
+     * @return Whether the character is an ASCII letter.
+     */
+    static boolean isASCIILetter(int character) {
+        return character >= CryptoConstants.ASCII_A_UPPERCASE
+            && character < CryptoConstants.ASCII_A_UPPERCASE + CryptoConstants.ALPHABET_SIZE
+            || character >= CryptoConstants.ASCII_A_LOWERCASE
+            && character < CryptoConstants.ASCII_A_LOWERCASE + CryptoConstants.ALPHABET_SIZE;
+    }
 }
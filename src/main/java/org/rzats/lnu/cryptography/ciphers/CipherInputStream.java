@@ -0,0 +1,82 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that applies a {@code Transformation} to the bytes read from an underlying stream.
+ * <p>
+ * Bytes are transformed in place in the caller's buffer, so no additional copies of the message are made.
+ */
+public class CipherInputStream extends FilterInputStream {
+    /**
+     * The encryption or decryption applied to the stream.
+     */
+    private final Transformation transformation;
+
+    /**
+     * A buffer for single-byte reads.
+     */
+    private final byte[] single = new byte[1];
+
+    public CipherInputStream(InputStream in, Transformation transformation) {
+        super(in);
+        this.transformation = transformation;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            return -1;
+        }
+
+        single[0] = (byte) b;
+        transformation.apply(single, 0, 1);
+        return single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            transformation.apply(b, off, read);
+        }
+        return read;
+    }
+
+    /**
+     * Skips over bytes by reading them, so that the cipher state stays in step with the stream.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, CryptoConstants.STREAM_CHUNK_SIZE)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset is not supported by a cipher stream");
+    }
+}
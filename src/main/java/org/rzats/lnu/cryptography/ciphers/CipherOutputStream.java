@@ -0,0 +1,49 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that applies a {@code Transformation} to the bytes before writing them to an underlying stream.
+ * <p>
+ * The caller's data is left untouched - it is copied through a fixed-size chunk buffer and transformed there.
+ */
+public class CipherOutputStream extends FilterOutputStream {
+    /**
+     * The encryption or decryption applied to the stream.
+     */
+    private final Transformation transformation;
+
+    /**
+     * The chunk buffer the data is transformed in.
+     */
+    private final byte[] buffer = new byte[CryptoConstants.STREAM_CHUNK_SIZE];
+
+    public CipherOutputStream(OutputStream out, Transformation transformation) {
+        super(out);
+        this.transformation = transformation;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[0] = (byte) b;
+        transformation.apply(buffer, 0, 1);
+        out.write(buffer[0]);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int chunk = Math.min(len, buffer.length);
+            System.arraycopy(b, off, buffer, 0, chunk);
+            transformation.apply(buffer, 0, chunk);
+            out.write(buffer, 0, chunk);
+
+            off += chunk;
+            len -= chunk;
+        }
+    }
+}
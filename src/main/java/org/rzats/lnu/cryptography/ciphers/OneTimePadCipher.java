@@ -1,5 +1,7 @@
 package org.rzats.lnu.cryptography.ciphers;
 
+import java.nio.ByteBuffer;
+
 /**
  * A "perfect" encryption method.
  * <p>
@@ -21,11 +23,8 @@ public class OneTimePadCipher extends VigenereCipher {
         if (this.key.length != plaintext.length) {
             throw new IllegalArgumentException("The key should be exactly as long as the message being encrypted!");
         }
-        if (this.used) {
-            throw new SecurityException("This key has already been used and should not be reused!");
-        }
 
-        this.used = true;
+        markUsed();
         return super.encrypt(plaintext);
     }
 
@@ -37,4 +36,84 @@ public class OneTimePadCipher extends VigenereCipher {
 
         return super.decrypt(ciphertext);
     }
+
+    @Override
+    public void encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+        checkLength(plaintext.remaining());
+        super.encrypt(plaintext, ciphertext);
+    }
+
+    @Override
+    public void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+        checkLength(ciphertext.remaining());
+        super.decrypt(ciphertext, plaintext);
+    }
+
+    @Override
+    public void encrypt(byte[] data, int offset, int length) {
+        checkLength(length);
+        markUsed();
+        super.encrypt(data, offset, length);
+    }
+
+    @Override
+    public void decrypt(byte[] data, int offset, int length) {
+        checkLength(length);
+        super.decrypt(data, offset, length);
+    }
+
+    /**
+     * Starts a streaming encryption, marking the pad as used.
+     * <p>
+     * The length of a stream is not known in advance, so only messages longer than the key are rejected.
+     */
+    @Override
+    public Transformation newEncryptor() {
+        markUsed();
+        return limit(super.newEncryptor());
+    }
+
+    @Override
+    public Transformation newDecryptor() {
+        return limit(super.newDecryptor());
+    }
+
+    private void markUsed() {
+        if (this.used) {
+            throw new SecurityException("This key has already been used and should not be reused!");
+        }
+
+        this.used = true;
+    }
+
+    private void checkLength(int length) {
+        if (this.key.length != length) {
+            throw new IllegalArgumentException("The key should be exactly as long as the message being encrypted!");
+        }
+    }
+
+    /**
+     * Restricts a transformation to messages no longer than the key.
+     *
+     * @param transformation The transformation to restrict.
+     * @return The restricted transformation.
+     */
+    private Transformation limit(Transformation transformation) {
+        return new Transformation() {
+            /**
+             * The amount of bytes transformed so far.
+             */
+            private long position;
+
+            @Override
+            public void apply(byte[] data, int offset, int length) {
+                if (position + length > key.length) {
+                    throw new IllegalArgumentException("The key should be exactly as long as the message being encrypted!");
+                }
+
+                position += length;
+                transformation.apply(data, offset, length);
+            }
+        };
+    }
 }
@@ -0,0 +1,302 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A one-time pad kept in a (possibly very large) file, consumed by many messages without ever reusing pad material.
+ * <p>
+ * The pad file is memory-mapped, and messages are combined with the mapped pad directly.
+ * Every encryption reserves the next unused range of the pad; the reserved offset is recorded in a
+ * {@code .offset} file next to the pad before the range is handed out, so pad material isn't reused after a restart.
+ * <p>
+ * To avoid a disk flush per message, the recorded offset is advanced in leases of {@code LEASE_SIZE} bytes and
+ * ranges within the lease are claimed without locking. A crash wastes the rest of the lease, but never reuses it.
+ * The offset file is locked while the store is open, so only one process can use a pad at a time.
+ */
+public class OneTimePadStore implements Closeable {
+    /**
+     * How a message is combined with the pad.
+     */
+    public enum Combination {
+        /**
+         * Each byte is XORed with a pad byte.
+         */
+        XOR,
+        /**
+         * Each ASCII letter is shifted by a pad byte (modulo the alphabet size), as in the Vigenere cipher.
+         * Other bytes, including those of non-ASCII UTF-8 characters, are left unchanged, but still consume a pad byte.
+         * <p>
+         * 256 isn't a multiple of 26, so pad bytes of 234 (26 * 9) and above would make some shifts likelier
+         * than others. Those pad bytes are skipped, so a message takes about 9% more of the pad than its' length.
+         */
+        VIGENERE
+    }
+
+    /**
+     * The amount of pad bytes reserved by each write of the offset file.
+     */
+    private static final long LEASE_SIZE = 1 << 20;
+    /**
+     * The size of each mapped region of the pad (a single mapping is limited to 2 GB).
+     */
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    /**
+     * The pad bytes below this limit give every shift modulo the alphabet size with the same probability.
+     */
+    private static final int VIGENERE_KEY_LIMIT = 256 / CryptoConstants.ALPHABET_SIZE * CryptoConstants.ALPHABET_SIZE;
+
+    /**
+     * The mapped regions of the pad.
+     */
+    private final MappedByteBuffer[] segments;
+    /**
+     * The length of the pad.
+     */
+    private final long padLength;
+    /**
+     * How messages are combined with the pad.
+     */
+    private final Combination combination;
+
+    /**
+     * The file holding the recorded offset.
+     */
+    private final FileChannel offsetChannel;
+    private final FileLock offsetLock;
+
+    /**
+     * The start of the next range to be handed out.
+     */
+    private final AtomicLong next;
+    /**
+     * The recorded offset - no range ending past it has been handed out.
+     */
+    private volatile long recorded;
+
+    public OneTimePadStore(Path pad, Combination combination) throws IOException {
+        this.combination = combination;
+
+        try (FileChannel padChannel = FileChannel.open(pad, StandardOpenOption.READ)) {
+            this.padLength = padChannel.size();
+            this.segments = new MappedByteBuffer[(int) ((padLength + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = padChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(padLength - start, 1L << SEGMENT_BITS));
+            }
+        }
+
+        Path offsetFile = Paths.get(pad.toString() + ".offset");
+        this.offsetChannel = FileChannel.open(offsetFile,
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            this.offsetLock = lock(offsetChannel, pad);
+            this.recorded = readOffset(offsetChannel, offsetFile);
+        } catch (IOException e) {
+            // Closing the channel also releases the lock.
+            offsetChannel.close();
+            throw e;
+        }
+        this.next = new AtomicLong(recorded);
+    }
+
+    /**
+     * Locks the offset file, failing if the pad is already open - in another process or in this one.
+     */
+    private static FileLock lock(FileChannel offsetChannel, Path pad) throws IOException {
+        FileLock lock;
+        try {
+            lock = offsetChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            throw new IOException("The pad is already in use: " + pad, e);
+        }
+        if (lock == null) {
+            throw new IOException("The pad is already in use: " + pad);
+        }
+        return lock;
+    }
+
+    /**
+     * Reads the recorded offset. Only a new (empty) offset file means an unused pad - a file of any
+     * other size than a single offset is corrupt, and starting over would reuse the pad.
+     */
+    private long readOffset(FileChannel offsetChannel, Path offsetFile) throws IOException {
+        long size = offsetChannel.size();
+        if (size == 0) {
+            return 0;
+        }
+        if (size != Long.BYTES) {
+            throw new IOException("The offset file is corrupt (" + size + " bytes): " + offsetFile);
+        }
+
+        ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+        while (offset.hasRemaining()) {
+            if (offsetChannel.read(offset, offset.position()) < 0) {
+                throw new IOException("The offset file was truncated: " + offsetFile);
+            }
+        }
+        long recorded = offset.getLong(0);
+        if (recorded < 0 || recorded > padLength) {
+            throw new IOException("The offset file is corrupt (offset " + recorded + "): " + offsetFile);
+        }
+        return recorded;
+    }
+
+    /**
+     * @return The amount of pad bytes that haven't been reserved yet
+     * (a VIGENERE message may need more of them than its' length).
+     */
+    public long remaining() {
+        return padLength - next.get();
+    }
+
+    /**
+     * Encrypts a message in place with the next unused range of the pad.
+     *
+     * @param data   The array holding the message.
+     * @param offset The index of the first byte of the message.
+     * @param length The length of the message.
+     * @return The position of the range in the pad, needed to decrypt the message.
+     * @throws IOException If the offset can't be recorded.
+     */
+    public long encrypt(byte[] data, int offset, int length) throws IOException {
+        checkBounds(data, offset, length);
+        long position = reserve(length);
+        combine(position, data, offset, length, 1);
+        return position;
+    }
+
+    /**
+     * Decrypts a message in place.
+     *
+     * @param position The position of the message's range in the pad, as returned by {@code encrypt}.
+     * @param data     The array holding the message.
+     * @param offset   The index of the first byte of the message.
+     * @param length   The length of the message.
+     */
+    public void decrypt(long position, byte[] data, int offset, int length) {
+        checkBounds(data, offset, length);
+        if (position < 0 || position > padLength || rangeEnd(position, length) > padLength) {
+            throw new IllegalArgumentException("The message lies outside the pad!");
+        }
+
+        combine(position, data, offset, length, -1);
+    }
+
+    /**
+     * Checks that a message lies within its' array, before any pad is reserved for it.
+     */
+    private static void checkBounds(byte[] data, int offset, int length) {
+        if (length < 0 || offset < 0 || offset > data.length - length) {
+            throw new IllegalArgumentException("The message lies outside the array!");
+        }
+    }
+
+    /**
+     * Claims the next unused range of the pad, recording the new offset first if it's past the current lease.
+     *
+     * @param length The length of the range.
+     * @return The position of the range.
+     * @throws IOException If the offset can't be recorded.
+     */
+    private long reserve(int length) throws IOException {
+        while (true) {
+            long start = next.get();
+            long end = rangeEnd(start, length);
+            if (end > padLength) {
+                throw new SecurityException("The pad has been used up and should not be reused!");
+            }
+
+            if (end > recorded) {
+                synchronized (this) {
+                    if (end > recorded) {
+                        long lease = Math.min(padLength, Math.max(end, recorded + LEASE_SIZE));
+                        record(lease);
+                        recorded = lease;
+                    }
+                }
+            }
+
+            if (next.compareAndSet(start, end)) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * @param position The position of a message's range in the pad.
+     * @param length   The length of the message.
+     * @return The end of the message's range, or a position past the pad if the pad is too short.
+     */
+    private long rangeEnd(long position, int length) {
+        if (combination == Combination.XOR) {
+            return position + length;
+        }
+
+        long p = position;
+        for (int i = 0; i < length; i++) {
+            do {
+                if (p >= padLength) {
+                    return padLength + 1;
+                }
+            } while (padByte(p++) >= VIGENERE_KEY_LIMIT);
+        }
+        return p;
+    }
+
+    private int padByte(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK)) & 0xFF;
+    }
+
+    private void record(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(0, offset);
+        while (buffer.hasRemaining()) {
+            offsetChannel.write(buffer, buffer.position());
+        }
+        offsetChannel.force(true);
+    }
+
+    /**
+     * Combines a message with a range of the pad.
+     *
+     * @param direction 1 to encrypt, -1 to decrypt.
+     */
+    private void combine(long position, byte[] data, int offset, int length, int direction) {
+        long p = position;
+        for (int i = 0; i < length; i++) {
+            int key = padByte(p++);
+
+            if (combination == Combination.XOR) {
+                data[offset + i] ^= key;
+            } else {
+                // Skip the pad bytes that would bias the shift - rangeEnd has checked that enough are left.
+                while (key >= VIGENERE_KEY_LIMIT) {
+                    key = padByte(p++);
+                }
+                data[offset + i] = (byte) CaesarCipher.shiftASCII(data[offset + i] & 0xFF, direction * key);
+            }
+        }
+    }
+
+    /**
+     * Releases the pad. The mapped regions are unmapped once they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        offsetLock.release();
+        offsetChannel.close();
+    }
+}
@@ -1,58 +1,59 @@
 package org.rzats.lnu.cryptography.ciphers;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * A simple transposition cipher.
  * <p>
  * Transposes the message onto an imaginary fence then reads it off its' "rails".
+ * <p>
+ * The fence itself is never built: the position of every character on the fence is calculated directly,
+ * and the resulting permutations are cached for short messages, which tend to have repeating lengths.
  */
-public class RailFenceCipher implements Cipher {
+public class RailFenceCipher implements Cipher, ByteCipher {
+    /**
+     * The amount of permutations kept in the cache.
+     */
+    private static final int CACHE_CAPACITY = 64;
+    /**
+     * The maximum message length whose permutation is cached.
+     */
+    private static final int CACHEABLE_LENGTH = 1 << 16;
+
+    /**
+     * The most recently used permutations, keyed by fence height (high 32 bits) and message length (low 32 bits).
+     */
+    private static final Map<Long, int[]> PERMUTATIONS = new LinkedHashMap<Long, int[]>(CACHE_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
     /**
      * The amount of the fence's "rails" - acts as a key.
      */
     private int fenceHeight;
 
     public RailFenceCipher(int fenceHeight) {
+        if (fenceHeight < 1) {
+            throw new IllegalArgumentException("The fence must have at least one rail!");
+        }
+
         this.fenceHeight = fenceHeight;
     }
 
     @Override
     public int[] encrypt(int[] plaintext) {
-        int[][] fence = new int[fenceHeight][plaintext.length];
-
-        // Fill the "fence" array
-        int rail = 0;
-        boolean movingUp = false;
-        for (int i = 0; i < plaintext.length; i++) {
-            fence[rail][i] = plaintext[i];
-
-            // Move up when the bottom rail is reached
-            if (movingUp) {
-                if (rail == 0) {
-                    rail = 1;
-                    movingUp = false;
-                } else {
-                    rail--;
-                }
-            } else {
-                if (rail == fence.length - 1) {
-                    rail = fence.length - 2;
-                    movingUp = true;
-                } else {
-                    rail++;
-                }
-            }
-        }
-
-        // Read the fence off rows to get the ciphertext
+        int[] permutation = permutation(plaintext.length);
         int[] ciphertext = new int[plaintext.length];
-        int k = 0;
-        for (int i = 0; i < fence.length; i++) {
-            for (int j = 0; j < plaintext.length; j++) {
-                if (fence[i][j] > 0) {
-                    ciphertext[k] = fence[i][j];
-                    k++;
-                }
-            }
+
+        for (int k = 0; k < permutation.length; k++) {
+            ciphertext[k] = plaintext[permutation[k]];
         }
 
         return ciphertext;
@@ -60,67 +61,134 @@ public class RailFenceCipher implements Cipher {
 
     @Override
     public int[] decrypt(int[] ciphertext) {
-        int[][] fence = new int[fenceHeight][ciphertext.length];
+        int[] permutation = permutation(ciphertext.length);
+        int[] plaintext = new int[ciphertext.length];
 
-        //Fill the "fence" array
-        int targetRow = 0;
-        int index = 0;
-        do {
-            int rail = 0;
-            boolean movingUp = false;
+        for (int k = 0; k < permutation.length; k++) {
+            plaintext[permutation[k]] = ciphertext[k];
+        }
 
-            for (int i = 0; i < ciphertext.length; i++) {
-                if (rail == targetRow) {
-                    fence[rail][i] = ciphertext[index];
-                    index++;
-                }
+        return plaintext;
+    }
 
-                // Move up when the bottom rail is reached
-                if (movingUp) {
-                    if (rail == 0) {
-                        rail = 1;
-                        movingUp = false;
-                    } else {
-                        rail--;
-                    }
-                } else {
-                    if (rail == fence.length - 1) {
-                        rail = fence.length - 2;
-                        movingUp = true;
-                    } else {
-                        rail++;
-                    }
-                }
-            }
+    @Override
+    public void encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+        transpose(plaintext, ciphertext, true);
+    }
 
-            targetRow++;
-        } while (targetRow < fence.length);
+    @Override
+    public void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+        transpose(ciphertext, plaintext, false);
+    }
 
-        // Read the reconstructed fence (zigzagging) to get the plaintext
-        int[] plaintext = new int[ciphertext.length];
-        int rail = 0;
-        boolean movingUp = false;
-        for (int col = 0; col < fence[rail].length; col++) {
-            plaintext[col] = fence[rail][col];
-
-            // Move up when the bottom rail is reached
-            if (movingUp) {
-                if (rail == 0) {
-                    rail = 1;
-                    movingUp = false;
-                } else {
-                    rail--;
-                }
+    @Override
+    public void encrypt(byte[] data, int offset, int length) {
+        // A transposition can't be done in place without a copy of the message.
+        ByteBuffer copy = ByteBuffer.wrap(Arrays.copyOfRange(data, offset, offset + length));
+        transpose(copy, ByteBuffer.wrap(data, offset, length), true);
+    }
+
+    @Override
+    public void decrypt(byte[] data, int offset, int length) {
+        ByteBuffer copy = ByteBuffer.wrap(Arrays.copyOfRange(data, offset, offset + length));
+        transpose(copy, ByteBuffer.wrap(data, offset, length), false);
+    }
+
+    /**
+     * Moves the message between zigzag order and rail order.
+     *
+     * @param source      The buffer to read the message from.
+     * @param destination The buffer to write the transposed message to.
+     * @param encrypt     Whether the message is read in zigzag order and written in rail order (encryption),
+     *                    as opposed to the other way around (decryption).
+     */
+    private void transpose(ByteBuffer source, ByteBuffer destination, boolean encrypt) {
+        int length = source.remaining();
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        int sourceBase = source.position();
+        int destinationBase = destination.position();
+        int[] permutation = permutation(length);
+
+        for (int k = 0; k < length; k++) {
+            if (encrypt) {
+                destination.put(destinationBase + k, source.get(sourceBase + permutation[k]));
             } else {
-                if (rail == fence.length - 1) {
-                    rail = fence.length - 2;
-                    movingUp = true;
+                destination.put(destinationBase + permutation[k], source.get(sourceBase + k));
+            }
+        }
+
+        source.position(sourceBase + length);
+        destination.position(destinationBase + length);
+    }
+
+    /**
+     * Returns the permutation for a message of a given length, using the cache if possible.
+     *
+     * @param length The length of the message.
+     * @return The position in the plaintext of each character of the ciphertext.
+     */
+    int[] permutation(int length) {
+        // A fence at least as high as the message never turns, so every such height gives the same permutation.
+        int height = Math.min(fenceHeight, Math.max(length, 1));
+        if (length > CACHEABLE_LENGTH) {
+            return computePermutation(height, length);
+        }
+
+        Long key = ((long) height << 32) | length;
+        synchronized (PERMUTATIONS) {
+            int[] permutation = PERMUTATIONS.get(key);
+            if (permutation != null) {
+                return permutation;
+            }
+        }
+
+        int[] permutation = computePermutation(height, length);
+        synchronized (PERMUTATIONS) {
+            PERMUTATIONS.put(key, permutation);
+        }
+        return permutation;
+    }
+
+    /**
+     * Calculates which plaintext position ends up at each ciphertext position, reading the fence rail by rail.
+     * <p>
+     * A full zigzag spans a cycle of 2*(H-1) positions. On rail r, the characters are alternately
+     * 2*(H-1-r) and 2*r positions apart, so every position of the rail can be calculated directly.
+     *
+     * @param fenceHeight The amount of rails, at most the length of the message.
+     * @param length      The length of the message.
+     * @return The position in the plaintext of each character of the ciphertext.
+     */
+    private static int[] computePermutation(int fenceHeight, int length) {
+        int[] permutation = new int[length];
+        // The steps are computed in long, as a cycle of a fence over 2^30 rails high overflows an int.
+        long cycle = Math.max(2 * (fenceHeight - 1L), 1);
+
+        int k = 0;
+        for (int rail = 0; rail < fenceHeight && rail < length; rail++) {
+            long down = cycle - 2L * rail;
+            long up = 2L * rail;
+
+            int i = rail;
+            boolean movingUp = false;
+            while (i < length) {
+                permutation[k] = i;
+                k++;
+
+                // The top and bottom rails only have one kind of step.
+                long step = movingUp ? up : down;
+                if (step == 0) {
+                    step = cycle;
                 } else {
-                    rail++;
+                    movingUp = !movingUp;
                 }
+                i = step < length - i ? (int) (i + step) : length;
             }
         }
 
-        return plaintext;
+        return permutation;
     }
 }
@@ -2,16 +2,22 @@ package org.rzats.lnu.cryptography.ciphers;
 
 import org.rzats.lnu.cryptography.common.ArrayUtilities;
 
-import java.util.Arrays;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * A simplified version of the Data Encryption Standard (DES) algorithm.
  * <p>
  * Works with bit arrays, though uses the Cipher interface for consistency.
+ * <p>
+ * Blocks and keys are handled as packed bits internally (the first bit of an array is the most significant one).
+ * Since there are only 256 possible blocks, each instance computes its' whole encryption and decryption codebooks
+ * up front, and encrypting a byte is a single lookup.
  */
-public class SimplifiedDESCipher implements Cipher {
+public class SimplifiedDESCipher implements Cipher, ByteCipher {
     private static final int INPUT_LENGTH = 8;
     private static final int KEY_LENGTH = 10;
+    private static final int CODEBOOK_SIZE = 1 << INPUT_LENGTH;
 
     private static final int[] P10 = {3, 5, 2, 7, 4, 10, 1, 9, 8, 6};
     private static final int[] P8 = {6, 3, 7, 4, 8, 5, 10, 9};
@@ -20,218 +26,256 @@ public class SimplifiedDESCipher implements Cipher {
     private static final int[] P4 = {2, 4, 3, 1};
     private static final int[] IP_REVERSE = {4, 1, 3, 5, 7, 2, 8, 6};
 
-    private static final String[][] S0 = {
-        {"01", "00", "11", "10"},
-        {"11", "10", "01", "00"},
-        {"00", "10", "01", "11"},
-        {"11", "01", "11", "10"}
+    private static final int[][] S0 = {
+        {1, 0, 3, 2},
+        {3, 2, 1, 0},
+        {0, 2, 1, 3},
+        {3, 1, 3, 2}
     };
-    private static final String[][] S1 = {
-        {"00", "01", "10", "11"},
-        {"10", "00", "01", "11"},
-        {"11", "00", "01", "00"},
-        {"10", "01", "00", "11"}
+    private static final int[][] S1 = {
+        {0, 1, 2, 3},
+        {2, 0, 1, 3},
+        {3, 0, 1, 0},
+        {2, 1, 0, 3}
     };
 
     /**
-     * The 8-bit K1 subkey.
+     * The ciphertext block for each plaintext block.
      */
-    private int[] K1;
+    private final byte[] encryptionCodebook = new byte[CODEBOOK_SIZE];
     /**
-     * The 8-bit K2 subkey.
+     * The plaintext block for each ciphertext block.
      */
-    private int[] K2;
+    private final byte[] decryptionCodebook = new byte[CODEBOOK_SIZE];
 
     public SimplifiedDESCipher(int[] key) {
-        int[][] subkeys = generateSubkeys(key);
-        this.K1 = subkeys[0];
-        this.K2 = subkeys[1];
+        this(toKey(key));
+    }
+
+    /**
+     * @param key The 10-bit key, packed into the low bits of an integer.
+     */
+    public SimplifiedDESCipher(int key) {
+        if ((key >>> KEY_LENGTH) != 0) {
+            throw new IllegalArgumentException("SDES requires 10-bit keys");
+        }
+
+        int subkeys = generateSubkeys(key);
+        for (int block = 0; block < CODEBOOK_SIZE; block++) {
+            int ciphertext = transform(block, subkeys >>> INPUT_LENGTH, subkeys & 0xFF);
+            encryptionCodebook[block] = (byte) ciphertext;
+            decryptionCodebook[ciphertext] = (byte) block;
+        }
     }
 
     @Override
     public int[] encrypt(int[] plaintext) {
-        return transform(plaintext, true);
+        return ArrayUtilities.toBitArray(encryptBlock(toBlock(plaintext)), INPUT_LENGTH);
     }
 
     @Override
     public int[] decrypt(int[] ciphertext) {
-        return transform(ciphertext, false);
+        return ArrayUtilities.toBitArray(decryptBlock(toBlock(ciphertext)), INPUT_LENGTH);
     }
 
     /**
-     * Performs the SDES algorithm on a given input array.
+     * Encrypts a single block.
      *
-     * @param input   The input array.
-     * @param encrypt Whether the array is a plaintext (and should be encrypted)
-     *                as opposed to a ciphertext (should be decrypted).
-     * @return The transformed array.
+     * @param plaintext The 8-bit block, packed into the low bits of an integer.
+     * @return The encrypted block.
      */
-    private int[] transform(int[] input, boolean encrypt) {
-        if (input.length != INPUT_LENGTH) {
-            throw new IllegalArgumentException("SDES requires 10-bit plaintext/ciphertext");
-        }
-        if (!ArrayUtilities.isBitArray(input)) {
-            throw new IllegalArgumentException("The input must only contain 0/1 values");
-        }
-
-        // Apply initial IP permutation to the input.
-        int[] buffer = ArrayUtilities.permute(input, IP);
-
-        // Separate the resulting array into two 4-bit subarrays (and store them).
-        int[] leftArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(buffer, 0, leftArray, 0, INPUT_LENGTH / 2);
-        int[] leftArrayCopy = Arrays.copyOf(leftArray, INPUT_LENGTH / 2);
-
-        int[] rightArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(buffer, INPUT_LENGTH / 2, rightArray, 0, INPUT_LENGTH - 4);
-        int[] rightArrayCopy = Arrays.copyOf(rightArray, INPUT_LENGTH / 2);
-
-        // Apply expansion/permutation to the right array and perform binary XOR (with K1 if encrypting, K2 if decrypting)
-        buffer = ArrayUtilities.permute(rightArray, EP);
-        buffer = ArrayUtilities.xor(buffer, encrypt ? K1 : K2);
-
-        leftArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(buffer, 0, leftArray, 0, INPUT_LENGTH / 2);
-        rightArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(buffer, INPUT_LENGTH / 2, rightArray, 0, INPUT_LENGTH - 4);
-
-        // Determine a row and column number from above XOR result.
-        String row = leftArray[0] + "" + leftArray[3];
-        int rowNumber = getNumber(row);
-        String column = leftArray[1] + "" + leftArray[2];
-        int columnNumber = getNumber(column);
-
-        // Store the two bits located at the given row&column in S0.
-        String lArraySub0 = S0[rowNumber][columnNumber];
-
-        // Repeat for S1.
-        row = rightArray[0] + "" + rightArray[3];
-        rowNumber = getNumber(row);
-        column = rightArray[1] + "" + rightArray[2];
-        columnNumber = getNumber(column);
+    public int encryptBlock(int plaintext) {
+        return encryptionCodebook[plaintext & 0xFF] & 0xFF;
+    }
 
-        String rArraySub1 = S1[rowNumber][columnNumber];
+    /**
+     * Decrypts a single block.
+     *
+     * @param ciphertext The 8-bit block, packed into the low bits of an integer.
+     * @return The decrypted block.
+     */
+    public int decryptBlock(int ciphertext) {
+        return decryptionCodebook[ciphertext & 0xFF] & 0xFF;
+    }
 
-        // Apply the four bits to the buffer.
-        buffer = new int[INPUT_LENGTH / 2];
-        buffer[0] = Integer.parseInt(lArraySub0.charAt(0) + "");
-        buffer[1] = Integer.parseInt(lArraySub0.charAt(1) + "");
-        buffer[2] = Integer.parseInt(rArraySub1.charAt(0) + "");
-        buffer[3] = Integer.parseInt(rArraySub1.charAt(1) + "");
+    /**
+     * Encrypts every byte of a buffer as an independent block.
+     */
+    @Override
+    public void encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+        lookup(plaintext, ciphertext, encryptionCodebook);
+    }
 
-        // Apply P4 permutation to above result and combine with the left 4 bits of the first result.
-        buffer = ArrayUtilities.permute(buffer, P4);
-        buffer = ArrayUtilities.xor(leftArrayCopy, buffer);
+    /**
+     * Decrypts every byte of a buffer as an independent block.
+     */
+    @Override
+    public void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+        lookup(ciphertext, plaintext, decryptionCodebook);
+    }
 
-        // Encryption round 2: repeat the above procedure to develop the last 4 replacement bits.
-        int[] round2buffer = new int[INPUT_LENGTH];
-        System.arraycopy(rightArrayCopy, 0, round2buffer, 0, INPUT_LENGTH / 2);
-        System.arraycopy(buffer, 0, round2buffer, 4, INPUT_LENGTH / 2);
-        rightArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(round2buffer, INPUT_LENGTH / 2, rightArray, 0, INPUT_LENGTH - 4);
+    /**
+     * Encrypts every byte of an array range in place as an independent block.
+     */
+    @Override
+    public void encrypt(byte[] data, int offset, int length) {
+        lookup(data, offset, length, encryptionCodebook);
+    }
 
-        buffer = ArrayUtilities.permute(rightArray, EP);
-        buffer = ArrayUtilities.xor(buffer, encrypt ? K2 : K1);
+    /**
+     * Decrypts every byte of an array range in place as an independent block.
+     */
+    @Override
+    public void decrypt(byte[] data, int offset, int length) {
+        lookup(data, offset, length, decryptionCodebook);
+    }
 
-        leftArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(buffer, 0, leftArray, 0, INPUT_LENGTH / 2);
-        rightArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(buffer, INPUT_LENGTH / 2, rightArray, 0, INPUT_LENGTH - 4);
+    private static void lookup(byte[] data, int offset, int length, byte[] codebook) {
+        for (int i = offset; i < offset + length; i++) {
+            data[i] = codebook[data[i] & 0xFF];
+        }
+    }
 
-        row = leftArray[0] + "" + leftArray[3];
-        rowNumber = getNumber(row);
-        column = leftArray[1] + "" + leftArray[2];
-        columnNumber = getNumber(column);
+    private static void lookup(ByteBuffer source, ByteBuffer destination, byte[] codebook) {
+        if (destination.remaining() < source.remaining()) {
+            throw new BufferOverflowException();
+        }
 
-        lArraySub0 = S0[rowNumber][columnNumber];
+        while (source.hasRemaining()) {
+            destination.put(codebook[source.get() & 0xFF]);
+        }
+    }
 
-        row = rightArray[0] + "" + rightArray[3];
-        rowNumber = getNumber(row);
-        column = rightArray[1] + "" + rightArray[2];
-        columnNumber = getNumber(column);
+    /**
+     * Performs the SDES algorithm on a given block.
+     *
+     * @param input  The 8-bit input block.
+     * @param first  The subkey used in the first round (K1 when encrypting, K2 when decrypting).
+     * @param second The subkey used in the second round (K2 when encrypting, K1 when decrypting).
+     * @return The transformed block.
+     */
+    public static int transform(int input, int first, int second) {
+        // Apply initial IP permutation to the input and separate it into two 4-bit halves.
+        int buffer = initialPermutation(input);
+        int left = buffer >>> 4;
+        int right = buffer & 0xF;
 
-        rArraySub1 = S1[rowNumber][columnNumber];
+        // Round 1: combine the left half with the round function of the right half.
+        left ^= substitute(expand(right) ^ first);
 
-        buffer = new int[INPUT_LENGTH / 2];
-        buffer[0] = Integer.parseInt(lArraySub0.charAt(0) + "");
-        buffer[1] = Integer.parseInt(lArraySub0.charAt(1) + "");
-        buffer[2] = Integer.parseInt(rArraySub1.charAt(0) + "");
-        buffer[3] = Integer.parseInt(rArraySub1.charAt(1) + "");
+        // Round 2: swap the halves and repeat the above procedure.
+        int swapped = right ^ substitute(expand(left) ^ second);
 
-        buffer = ArrayUtilities.permute(buffer, P4);
+        // Apply reverse of initial permutation IP to the final result.
+        return finalPermutation((swapped << 4) | left);
+    }
 
-        int[] swapBufferLArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(round2buffer, 0, swapBufferLArray, 0, INPUT_LENGTH / 2);
+    // The individual steps of the algorithm are public for use in cryptanalysis.
 
-        buffer = ArrayUtilities.xor(swapBufferLArray, buffer);
+    /**
+     * @param block The 8-bit block.
+     * @return The block with the IP permutation applied.
+     */
+    public static int initialPermutation(int block) {
+        return permute(block, IP, INPUT_LENGTH);
+    }
 
-        int[] swapBufferRArray = new int[INPUT_LENGTH / 2];
-        System.arraycopy(round2buffer, INPUT_LENGTH / 2, swapBufferRArray, 0, INPUT_LENGTH - 4);
+    /**
+     * @param block The 8-bit block.
+     * @return The block with the reverse of the IP permutation applied.
+     */
+    public static int finalPermutation(int block) {
+        return permute(block, IP_REVERSE, INPUT_LENGTH);
+    }
 
-        int[] round2Array = new int[INPUT_LENGTH];
-        System.arraycopy(buffer, 0, round2Array, 0, INPUT_LENGTH / 2);
-        System.arraycopy(swapBufferRArray, 0, round2Array, INPUT_LENGTH / 2, INPUT_LENGTH - 4);
+    /**
+     * @param half The 4-bit half of a block.
+     * @return The 8-bit result of the expansion/permutation EP.
+     */
+    public static int expand(int half) {
+        return permute(half, EP, 4);
+    }
 
-        // Apply reverse of initial permutation IP to the final result.
-        buffer = ArrayUtilities.permute(round2Array, IP_REVERSE);
-        return buffer;
+    /**
+     * Applies the S-boxes and P4 to an expanded half combined with a subkey.
+     *
+     * @param bits The 8-bit input.
+     * @return The 4-bit result.
+     */
+    public static int substitute(int bits) {
+        // Bits 1 and 4 of each 4-bit half determine the S-box row, bits 2 and 3 determine the column.
+        int left = bits >>> 4;
+        int right = bits & 0xF;
+        int s0 = S0[((left >>> 2) & 2) | (left & 1)][(left >>> 1) & 3];
+        int s1 = S1[((right >>> 2) & 2) | (right & 1)][(right >>> 1) & 3];
+
+        return permute((s0 << 2) | s1, P4, 4);
     }
 
     /**
      * Generates the K1/K2 subkeys from a given key.
      *
      * @param key The 10-bit key.
-     * @return An array of K1/K2 subkeys.
+     * @return The 8-bit K1 and K2 subkeys, packed into bits 8-15 and 0-7 respectively.
      */
-    private int[][] generateSubkeys(int[] key) {
-        if (key.length != KEY_LENGTH) {
-            throw new IllegalArgumentException("SDES requires 8-bit keys");
-        }
-        if (!ArrayUtilities.isBitArray(key)) {
-            throw new IllegalArgumentException("The key must only contain 0/1 values");
-        }
-
-        int[][] result = new int[2][];
+    public static int generateSubkeys(int key) {
+        // Apply permutation P10 to the initial key and separate it into two halves.
+        int buffer = permute(key, P10, KEY_LENGTH);
+        int left = buffer >>> 5;
+        int right = buffer & 0x1F;
 
-        // Apply permutation P10 to the initial key.
-        int[] buffer = ArrayUtilities.permute(key, P10);
+        // Left-shift the halves by 1 separately, concatenate them and apply P8.
+        left = rotateLeft(left, 1);
+        right = rotateLeft(right, 1);
+        int k1 = permute((left << 5) | right, P8, KEY_LENGTH);
 
-        // Separate the key into two halves.
-        int[] leftArray = new int[KEY_LENGTH / 2];
-        System.arraycopy(buffer, 0, leftArray, 0, KEY_LENGTH / 2);
-        int[] rightArray = new int[KEY_LENGTH / 2];
-        System.arraycopy(buffer, KEY_LENGTH / 2, rightArray, 0, KEY_LENGTH - 5);
-
-        // Left-shift the halves by 1 separately.
-        leftArray = ArrayUtilities.leftShift(leftArray, 1);
-        rightArray = ArrayUtilities.leftShift(rightArray, 1);
+        // Repeat the above procedure, except left-shifting by 2.
+        left = rotateLeft(left, 2);
+        right = rotateLeft(right, 2);
+        int k2 = permute((left << 5) | right, P8, KEY_LENGTH);
 
-        // Concatenate them.
-        System.arraycopy(leftArray, 0, buffer, 0, KEY_LENGTH / 2);
-        System.arraycopy(rightArray, 0, buffer, KEY_LENGTH / 2, KEY_LENGTH - 5);
+        return (k1 << INPUT_LENGTH) | k2;
+    }
 
-        // Apply P8 and store the result as the first subkey.
-        buffer = ArrayUtilities.permute(buffer, P8);
-        result[0] = Arrays.copyOf(buffer, KEY_LENGTH);
+    /**
+     * Re-arranges the bits of a value according to a fixed permutation array.
+     *
+     * @param value       The input bits.
+     * @param permutation The permutation array (1-based, counting from the most significant bit).
+     * @param width       The amount of input bits.
+     * @return The permuted bits.
+     */
+    private static int permute(int value, int[] permutation, int width) {
+        int result = 0;
+        for (int position : permutation) {
+            result = (result << 1) | ((value >>> (width - position)) & 1);
+        }
+        return result;
+    }
 
-        // Repeat the above procedure, except left-shifting by 2.
-        leftArray = ArrayUtilities.leftShift(leftArray, 2);
-        rightArray = ArrayUtilities.leftShift(rightArray, 2);
+    private static int rotateLeft(int half, int shift) {
+        return ((half << shift) | (half >>> (5 - shift))) & 0x1F;
+    }
 
-        buffer = new int[KEY_LENGTH];
-        System.arraycopy(leftArray, 0, buffer, 0, KEY_LENGTH / 2);
-        System.arraycopy(rightArray, 0, buffer, KEY_LENGTH / 2, KEY_LENGTH - 5);
+    private static int toBlock(int[] input) {
+        if (input.length != INPUT_LENGTH) {
+            throw new IllegalArgumentException("SDES requires 8-bit plaintext/ciphertext");
+        }
+        if (!ArrayUtilities.isBitArray(input)) {
+            throw new IllegalArgumentException("The input must only contain 0/1 values");
+        }
 
-        buffer = ArrayUtilities.permute(buffer, P8);
-        result[1] = Arrays.copyOf(buffer, KEY_LENGTH);
-        return result;
+        return ArrayUtilities.fromBitArray(input);
     }
 
-    private int getNumber(String n) {
-        if (n.equals("00")) return 0;
-        if (n.equals("01")) return 1;
-        if (n.equals("10")) return 2;
-        if (n.equals("11")) return 3;
-        return -1;
+    private static int toKey(int[] key) {
+        if (key.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("SDES requires 10-bit keys");
+        }
+        if (!ArrayUtilities.isBitArray(key)) {
+            throw new IllegalArgumentException("The key must only contain 0/1 values");
+        }
+
+        return ArrayUtilities.fromBitArray(key);
     }
 }
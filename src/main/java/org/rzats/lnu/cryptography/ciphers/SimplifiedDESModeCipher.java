@@ -0,0 +1,210 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.rzats.lnu.cryptography.common.ParallelUtilities;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Simplified DES applied to messages of any length using a {@code BlockMode}.
+ * <p>
+ * Every byte of a message is one 8-bit block. ECB, CTR and CBC decryption don't depend on the result
+ * for the previous block, so large messages are processed in chunks on the common fork/join pool.
+ * <p>
+ * The IV and the nonce are a single block, and the CTR keystream repeats every 256 bytes -
+ * an inherent limitation of an 8-bit block cipher.
+ */
+public class SimplifiedDESModeCipher implements ByteCipher {
+    /**
+     * The size of the chunks processed in parallel.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 16;
+    /**
+     * The size of the heap window direct buffers are processed through, a multiple of the chunk size.
+     */
+    private static final int WINDOW_SIZE = 16 * PARALLEL_CHUNK_SIZE;
+
+    /**
+     * The cipher used for every block.
+     */
+    private final SimplifiedDESCipher cipher;
+    /**
+     * The mode of operation.
+     */
+    private final BlockMode mode;
+    /**
+     * The IV (in CBC mode) or nonce (in CTR mode).
+     */
+    private final int iv;
+    /**
+     * The CTR keystream - the encryptions of the 256 counter values following the nonce.
+     */
+    private final byte[] keystream;
+
+    /**
+     * @param cipher The cipher used for every block.
+     * @param mode   The mode of operation.
+     * @param iv     The 8-bit IV (CBC) or nonce (CTR), ignored in ECB mode.
+     */
+    public SimplifiedDESModeCipher(SimplifiedDESCipher cipher, BlockMode mode, int iv) {
+        if ((iv >>> 8) != 0) {
+            throw new IllegalArgumentException("The IV/nonce must be a single 8-bit block");
+        }
+
+        this.cipher = cipher;
+        this.mode = mode;
+        this.iv = iv;
+
+        if (mode == BlockMode.CTR) {
+            this.keystream = new byte[256];
+            for (int i = 0; i < keystream.length; i++) {
+                keystream[i] = (byte) cipher.encryptBlock(iv + i);
+            }
+        } else {
+            this.keystream = null;
+        }
+    }
+
+    @Override
+    public void encrypt(byte[] data, int offset, int length) {
+        encrypt(data, offset, length, iv);
+    }
+
+    @Override
+    public void decrypt(byte[] data, int offset, int length) {
+        decrypt(data, offset, length, iv);
+    }
+
+    /**
+     * Encrypts the remaining bytes of a buffer into another buffer.
+     * Direct destination buffers are processed through a heap window of bounded size.
+     */
+    @Override
+    public void encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+        transform(plaintext, ciphertext, true);
+    }
+
+    /**
+     * Decrypts the remaining bytes of a buffer into another buffer.
+     * Direct destination buffers are processed through a heap window of bounded size.
+     */
+    @Override
+    public void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+        transform(ciphertext, plaintext, false);
+    }
+
+    /**
+     * Encrypts a message (or a part of it) in place.
+     *
+     * @param data     The array holding the message.
+     * @param offset   The index of the first byte.
+     * @param length   The amount of bytes.
+     * @param previous The ciphertext block preceding the first byte (the IV at the start of a message, CBC only).
+     * @return The last ciphertext block, which precedes the rest of the message (CBC only).
+     */
+    private int encrypt(byte[] data, int offset, int length, int previous) {
+        switch (mode) {
+            case ECB:
+                ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE,
+                    (from, to) -> cipher.encrypt(data, offset + from, to - from));
+                break;
+            case CBC:
+                // Each block depends on the previous ciphertext block, so encryption is sequential.
+                for (int i = offset; i < offset + length; i++) {
+                    previous = cipher.encryptBlock(data[i] ^ previous);
+                    data[i] = (byte) previous;
+                }
+                break;
+            case CTR:
+                ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE,
+                    (from, to) -> applyKeystream(data, offset, from, to));
+                break;
+        }
+        return previous;
+    }
+
+    /**
+     * Decrypts a message (or a part of it) in place.
+     *
+     * @param data     The array holding the message.
+     * @param offset   The index of the first byte.
+     * @param length   The amount of bytes.
+     * @param previous The ciphertext block preceding the first byte (the IV at the start of a message, CBC only).
+     * @return The last ciphertext block, which precedes the rest of the message (CBC only).
+     */
+    private int decrypt(byte[] data, int offset, int length, int previous) {
+        switch (mode) {
+            case ECB:
+                ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE,
+                    (from, to) -> cipher.decrypt(data, offset + from, to - from));
+                break;
+            case CBC:
+                int last = length == 0 ? previous : data[offset + length - 1] & 0xFF;
+
+                // Save the ciphertext block preceding every chunk, as the previous chunk overwrites it.
+                int[] before = new int[ParallelUtilities.chunkCount(length, PARALLEL_CHUNK_SIZE)];
+                for (int c = 0; c < before.length; c++) {
+                    before[c] = c == 0 ? previous : data[offset + c * PARALLEL_CHUNK_SIZE - 1] & 0xFF;
+                }
+
+                ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE, (from, to) -> {
+                    // Go backwards, so that the previous ciphertext block within the chunk is still intact.
+                    for (int i = offset + to - 1; i >= offset + from; i--) {
+                        int chained = i == offset + from ? before[from / PARALLEL_CHUNK_SIZE] : data[i - 1] & 0xFF;
+                        data[i] = (byte) (cipher.decryptBlock(data[i]) ^ chained);
+                    }
+                });
+                previous = last;
+                break;
+            case CTR:
+                ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE,
+                    (from, to) -> applyKeystream(data, offset, from, to));
+                break;
+        }
+        return previous;
+    }
+
+    private void transform(ByteBuffer source, ByteBuffer destination, boolean encrypt) {
+        int length = source.remaining();
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (destination.hasArray()) {
+            int offset = destination.arrayOffset() + destination.position();
+            source.get(destination.array(), offset, length);
+            if (encrypt) {
+                encrypt(destination.array(), offset, length);
+            } else {
+                decrypt(destination.array(), offset, length);
+            }
+            destination.position(destination.position() + length);
+            return;
+        }
+
+        // The window is a multiple of the 256-byte CTR keystream, so the keystream stays aligned between windows,
+        // and CBC carries the last ciphertext block of a window over to the next one.
+        byte[] window = new byte[Math.min(length, WINDOW_SIZE)];
+        int previous = iv;
+        while (source.hasRemaining()) {
+            int size = Math.min(source.remaining(), window.length);
+            source.get(window, 0, size);
+            previous = encrypt ? encrypt(window, 0, size, previous) : decrypt(window, 0, size, previous);
+            destination.put(window, 0, size);
+        }
+    }
+
+    /**
+     * XORs a range of a message with the CTR keystream.
+     *
+     * @param data   The array holding the message.
+     * @param offset The index of the first byte of the message.
+     * @param from   The start of the range within the message (inclusive).
+     * @param to     The end of the range within the message (exclusive).
+     */
+    private void applyKeystream(byte[] data, int offset, int from, int to) {
+        for (int i = from; i < to; i++) {
+            data[offset + i] ^= keystream[i & 0xFF];
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Designates a {@code Cipher} that can process a message of byte-sized characters in chunks, using constant memory.
+ * <p>
+ * Encrypting a byte stream produces the same bytes as calling {@link Cipher#encrypt(int[])} on the whole message.
+ * The {@code ByteCipher} operations are implemented as a single-chunk stream.
+ */
+public interface StreamingCipher extends Cipher, ByteCipher {
+    /**
+     * Starts a new encryption of a message.
+     *
+     * @return A {@code Transformation} positioned at the start of the message.
+     */
+    public Transformation newEncryptor();
+
+    /**
+     * Starts a new decryption of a message.
+     *
+     * @return A {@code Transformation} positioned at the start of the message.
+     */
+    public Transformation newDecryptor();
+
+    @Override
+    public default void encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+        newEncryptor().apply(plaintext, ciphertext);
+    }
+
+    @Override
+    public default void decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+        newDecryptor().apply(ciphertext, plaintext);
+    }
+
+    @Override
+    public default void encrypt(byte[] data, int offset, int length) {
+        newEncryptor().apply(data, offset, length);
+    }
+
+    @Override
+    public default void decrypt(byte[] data, int offset, int length) {
+        newDecryptor().apply(data, offset, length);
+    }
+
+    /**
+     * Encrypts everything remaining in an input stream and writes it to an output stream.
+     * Neither stream is closed.
+     *
+     * @param plaintext  The stream to read the message from.
+     * @param ciphertext The stream to write the encrypted message to.
+     * @throws IOException If reading or writing fails.
+     */
+    public default void encrypt(InputStream plaintext, OutputStream ciphertext) throws IOException {
+        InputStream input = new CipherInputStream(plaintext, newEncryptor());
+        byte[] buffer = new byte[CryptoConstants.STREAM_CHUNK_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            ciphertext.write(buffer, 0, read);
+        }
+        ciphertext.flush();
+    }
+
+    /**
+     * Decrypts everything remaining in an input stream and writes it to an output stream.
+     * Neither stream is closed.
+     *
+     * @param ciphertext The stream to read the encrypted message from.
+     * @param plaintext  The stream to write the original message to.
+     * @throws IOException If reading or writing fails.
+     */
+    public default void decrypt(InputStream ciphertext, OutputStream plaintext) throws IOException {
+        InputStream input = new CipherInputStream(ciphertext, newDecryptor());
+        byte[] buffer = new byte[CryptoConstants.STREAM_CHUNK_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            plaintext.write(buffer, 0, read);
+        }
+        plaintext.flush();
+    }
+}
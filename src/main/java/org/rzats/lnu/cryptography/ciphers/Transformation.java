@@ -0,0 +1,55 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A stateful, in-place encryption or decryption of a message that arrives in consecutive chunks.
+ * <p>
+ * Implementations carry any cipher state (key position, generator state, etc.) from one chunk to the next,
+ * so transforming a message chunk by chunk produces the same result as transforming it as a whole.
+ */
+public interface Transformation {
+    /**
+     * Transforms the next chunk of the message in place.
+     *
+     * @param data   The array holding the chunk.
+     * @param offset The index of the first byte of the chunk.
+     * @param length The length of the chunk.
+     */
+    public void apply(byte[] data, int offset, int length);
+
+    /**
+     * Transforms the remaining bytes of a buffer into another buffer, advancing the positions of both.
+     * <p>
+     * Heap buffers are transformed directly in the destination's backing array,
+     * other buffers are moved through a fixed-size chunk array using bulk copies.
+     *
+     * @param source      The buffer to read the chunk from.
+     * @param destination The buffer to write the transformed chunk to.
+     */
+    public default void apply(ByteBuffer source, ByteBuffer destination) {
+        int length = source.remaining();
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (destination.hasArray()) {
+            int offset = destination.arrayOffset() + destination.position();
+            source.get(destination.array(), offset, length);
+            apply(destination.array(), offset, length);
+            destination.position(destination.position() + length);
+            return;
+        }
+
+        byte[] chunk = new byte[Math.min(length, CryptoConstants.STREAM_CHUNK_SIZE)];
+        while (source.hasRemaining()) {
+            int size = Math.min(source.remaining(), chunk.length);
+            source.get(chunk, 0, size);
+            apply(chunk, 0, size);
+            destination.put(chunk, 0, size);
+        }
+    }
+}
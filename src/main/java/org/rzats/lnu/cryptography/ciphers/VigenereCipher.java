@@ -1,24 +1,44 @@
 package org.rzats.lnu.cryptography.ciphers;
 
 import org.rzats.lnu.cryptography.common.CryptoConstants;
-import org.rzats.lnu.cryptography.common.MathUtilities;
+import org.rzats.lnu.cryptography.common.ParallelUtilities;
+
+import java.util.function.IntBinaryOperator;
 
 /**
  * A simple polyalphabetic substitution cipher.
  * <p>
  * Uses a series of different Caesar ciphers based on the letters of a keyword.
+ * Only ASCII letters are shifted and advance the key, whether the message is an {@code int[]} or bytes.
+ * <p>
+ * In parallel mode, large messages are split into chunks that are transformed on the common fork/join pool.
+ * The key position each chunk starts at is found by counting the letters in every chunk (in parallel)
+ * and summing the counts of the chunks before it.
  */
-public class VigenereCipher implements Cipher {
+public class VigenereCipher implements StreamingCipher {
+    /**
+     * The size of the chunks a message is split into in parallel mode.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 16;
+
     /**
      * The key for the cipher.
      */
     protected int[] key;
+    /**
+     * Whether large messages are transformed in parallel.
+     */
+    private final boolean parallel;
 
     public VigenereCipher(int[] key) {
+        this(key, false);
+    }
+
+    public VigenereCipher(int[] key, boolean parallel) {
         // Convert the key to a positional, case-insensitive representation (a/A -> 0, b/B -> 1...)
         for (int i = 0; i < key.length; i++) {
-            if (Character.isAlphabetic(key[i])) {
-                if (Character.isUpperCase(key[i])) {
+            if (CaesarCipher.isASCIILetter(key[i])) {
+                if (key[i] < CryptoConstants.ASCII_A_LOWERCASE) {
                     key[i] = key[i] - CryptoConstants.ASCII_A_UPPERCASE;
                 } else {
                     key[i] = key[i] - CryptoConstants.ASCII_A_LOWERCASE;
@@ -29,60 +49,185 @@ public class VigenereCipher implements Cipher {
         }
 
         this.key = key;
+        this.parallel = parallel;
     }
 
     @Override
     public int[] encrypt(int[] plaintext) {
         int[] ciphertext = new int[plaintext.length];
-
-        int k = 0;
-        for (int i = 0; i < plaintext.length; i++) {
-            // If the character is alphabetic, encrypt it, otherwise add it to the ciphertext unchanged
-            if (Character.isAlphabetic(plaintext[i])) {
-                if (Character.isUpperCase(plaintext[i])) {
-                    ciphertext[i] = CryptoConstants.ASCII_A_UPPERCASE
-                            + MathUtilities.modulo(
-                            plaintext[i] - CryptoConstants.ASCII_A_UPPERCASE + key[MathUtilities.modulo(k, key.length)],
-                            CryptoConstants.ALPHABET_SIZE);
-                } else {
-                    ciphertext[i] = CryptoConstants.ASCII_A_LOWERCASE
-                            + MathUtilities.modulo(
-                            plaintext[i] - CryptoConstants.ASCII_A_LOWERCASE + key[MathUtilities.modulo(k, key.length)],
-                            CryptoConstants.ALPHABET_SIZE);
-                }
-                k++;
-            } else {
-                ciphertext[i] = plaintext[i];
-            }
-        }
-
+        transform(plaintext, ciphertext, 1);
         return ciphertext;
     }
 
     @Override
     public int[] decrypt(int[] ciphertext) {
         int[] plaintext = new int[ciphertext.length];
+        transform(ciphertext, plaintext, -1);
+        return plaintext;
+    }
 
-        int k = 0;
-        for (int i = 0; i < ciphertext.length; i++) {
-            // If the character is alphabetic, decrypt it, otherwise add it to the plaintext unchanged
-            if (Character.isAlphabetic(ciphertext[i])) {
-                if (Character.isUpperCase(ciphertext[i])) {
-                    plaintext[i] = CryptoConstants.ASCII_A_UPPERCASE
-                            + MathUtilities.modulo(
-                            ciphertext[i] - CryptoConstants.ASCII_A_UPPERCASE - key[MathUtilities.modulo(k, key.length)],
-                            CryptoConstants.ALPHABET_SIZE);
-                } else {
-                    plaintext[i] = CryptoConstants.ASCII_A_LOWERCASE + MathUtilities.modulo(
-                            ciphertext[i] - CryptoConstants.ASCII_A_LOWERCASE - key[MathUtilities.modulo(k, key.length)],
-                            CryptoConstants.ALPHABET_SIZE);
-                }
-                k++;
+    @Override
+    public void encrypt(byte[] data, int offset, int length) {
+        transform(data, offset, length, 1);
+    }
+
+    @Override
+    public void decrypt(byte[] data, int offset, int length) {
+        transform(data, offset, length, -1);
+    }
+
+    @Override
+    public Transformation newEncryptor() {
+        return new KeyTransformation(1);
+    }
+
+    @Override
+    public Transformation newDecryptor() {
+        return new KeyTransformation(-1);
+    }
+
+    private void transform(int[] input, int[] output, int direction) {
+        if (parallel && input.length > PARALLEL_CHUNK_SIZE) {
+            transformInParallel(input.length,
+                (from, to) -> countLetters(input, from, to),
+                (from, to, k) -> transform(input, output, from, to, k, direction));
+        } else {
+            transform(input, output, 0, input.length, 0, direction);
+        }
+    }
+
+    private void transform(byte[] data, int offset, int length, int direction) {
+        if (parallel && length > PARALLEL_CHUNK_SIZE) {
+            transformInParallel(length,
+                (from, to) -> countLetters(data, offset + from, offset + to),
+                (from, to, k) -> transform(data, offset + from, offset + to, k, direction));
+        } else {
+            transform(data, offset, offset + length, 0, direction);
+        }
+    }
+
+    /**
+     * Encrypts (or decrypts) a range of a message.
+     *
+     * @param input     The message.
+     * @param output    The array to write the transformed message to.
+     * @param from      The start of the range (inclusive).
+     * @param to        The end of the range (exclusive).
+     * @param k         The index of the key letter to be used for the first ASCII letter in the range.
+     * @param direction 1 to encrypt, -1 to decrypt.
+     * @return The index of the key letter to be used for the next ASCII letter after the range.
+     */
+    private int transform(int[] input, int[] output, int from, int to, int k, int direction) {
+        for (int i = from; i < to; i++) {
+            // If the character is an ASCII letter, shift it, otherwise leave it unchanged
+            if (CaesarCipher.isASCIILetter(input[i])) {
+                output[i] = CaesarCipher.shiftASCII(input[i], direction * key[k]);
+                k = (k + 1) % key.length;
             } else {
-                plaintext[i] = ciphertext[i];
+                output[i] = input[i];
             }
         }
 
-        return plaintext;
+        return k;
+    }
+
+    /**
+     * Encrypts (or decrypts) a range of a byte message in place.
+     *
+     * @param data      The message.
+     * @param from      The start of the range (inclusive).
+     * @param to        The end of the range (exclusive).
+     * @param k         The index of the key letter to be used for the first ASCII letter in the range.
+     * @param direction 1 to encrypt, -1 to decrypt.
+     * @return The index of the key letter to be used for the next ASCII letter after the range.
+     */
+    private int transform(byte[] data, int from, int to, int k, int direction) {
+        for (int i = from; i < to; i++) {
+            int character = data[i] & 0xFF;
+            // Only ASCII letters are shifted, so other bytes (e.g. of UTF-8 text) don't advance the key.
+            if (CaesarCipher.isASCIILetter(character)) {
+                data[i] = (byte) CaesarCipher.shiftASCII(character, direction * key[k]);
+                k = (k + 1) % key.length;
+            }
+        }
+
+        return k;
+    }
+
+    private static int countLetters(int[] message, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (CaesarCipher.isASCIILetter(message[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countLetters(byte[] message, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (CaesarCipher.isASCIILetter(message[i] & 0xFF)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Transforms a message chunk by chunk on the common fork/join pool.
+     *
+     * @param length      The length of the message.
+     * @param counter     Counts the ASCII letters in a range of the message.
+     * @param transformer Transforms a range of the message, starting at a given key index.
+     */
+    private void transformInParallel(int length, IntBinaryOperator counter, ChunkTransformer transformer) {
+        int chunks = ParallelUtilities.chunkCount(length, PARALLEL_CHUNK_SIZE);
+
+        // Count the letters in every chunk.
+        int[] letters = new int[chunks];
+        ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE, (from, to) ->
+            letters[from / PARALLEL_CHUNK_SIZE] = counter.applyAsInt(from, to));
+
+        // An exclusive prefix sum of the counts gives the key index each chunk starts at.
+        int[] keyIndices = new int[chunks];
+        int k = 0;
+        for (int c = 0; c < chunks; c++) {
+            keyIndices[c] = k;
+            k = (k + letters[c]) % key.length;
+        }
+
+        ParallelUtilities.inChunks(length, PARALLEL_CHUNK_SIZE, (from, to) ->
+            transformer.transform(from, to, keyIndices[from / PARALLEL_CHUNK_SIZE]));
+    }
+
+    /**
+     * Transforms a range of a message, starting at a given key index.
+     */
+    private interface ChunkTransformer {
+        void transform(int from, int to, int k);
+    }
+
+    /**
+     * A Vigenere encryption or decryption that remembers its' position in the key between chunks.
+     */
+    private class KeyTransformation implements Transformation {
+        /**
+         * 1 when encrypting, -1 when decrypting.
+         */
+        private final int direction;
+        /**
+         * The index of the key letter to be used for the next ASCII letter.
+         */
+        private int k;
+
+        KeyTransformation(int direction) {
+            this.direction = direction;
+        }
+
+        @Override
+        public void apply(byte[] data, int offset, int length) {
+            k = transform(data, offset, offset + length, k, direction);
+        }
     }
 }
@@ -52,6 +52,35 @@ public class ArrayUtilities {
         return true;
     }
 
+    /**
+     * Packs a bit array into an integer, the first element becoming the most significant bit.
+     *
+     * @param array The bit array (at most 32 elements).
+     * @return The packed bits.
+     */
+    public static int fromBitArray(int[] array) {
+        int result = 0;
+        for (int bit : array) {
+            result = (result << 1) | bit;
+        }
+        return result;
+    }
+
+    /**
+     * Unpacks the low bits of an integer into a bit array, the most significant bit becoming the first element.
+     *
+     * @param value  The packed bits.
+     * @param length The amount of bits to unpack.
+     * @return The bit array.
+     */
+    public static int[] toBitArray(int value, int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (value >>> (length - 1 - i)) & 1;
+        }
+        return result;
+    }
+
     /**
      * Re-arranges the elements of an array according to a fixed permutation array.
      *
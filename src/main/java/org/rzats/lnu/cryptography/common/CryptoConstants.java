@@ -13,4 +13,8 @@ public class CryptoConstants {
      * The ASCII code of 'a'.
      */
     public static final int ASCII_A_LOWERCASE = 97;
+    /**
+     * The size of the chunks that streaming ciphers read, transform and write at a time.
+     */
+    public static final int STREAM_CHUNK_SIZE = 8192;
 }
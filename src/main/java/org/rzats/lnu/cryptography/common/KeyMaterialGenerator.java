@@ -0,0 +1,176 @@
+package org.rzats.lnu.cryptography.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates random key material (e.g. one-time pads) in bulk.
+ * <p>
+ * Material is generated in chunks on the common fork/join pool. The secure generator gives every thread
+ * its' own {@code SecureRandom}, so threads never contend for a shared instance.
+ * The fast generator is a seeded, non-cryptographic {@code SplittableRandom}, meant for test data:
+ * every chunk gets its' own split, so the output only depends on the seed.
+ */
+public class KeyMaterialGenerator {
+    /**
+     * The size of the chunks generated in parallel.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+    /**
+     * The size of the regions of a file mapped at a time.
+     */
+    private static final long FILE_REGION_SIZE = 1L << 26;
+
+    /**
+     * The per-thread secure generators - a DRBG where available (Java 9+), otherwise SHA1PRNG.
+     * Unlike the default NativePRNG, neither of them synchronizes on a shared entropy source for every call.
+     */
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(() -> {
+        for (String algorithm : new String[]{"DRBG", "SHA1PRNG"}) {
+            try {
+                return SecureRandom.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                // Try the next algorithm.
+            }
+        }
+        return new SecureRandom();
+    });
+
+    /**
+     * The source of the fast generator's splits, or null for the secure generator.
+     */
+    private final SplittableRandom splittable;
+
+    private KeyMaterialGenerator(SplittableRandom splittable) {
+        this.splittable = splittable;
+    }
+
+    /**
+     * @return A generator of cryptographically secure key material.
+     */
+    public static KeyMaterialGenerator secure() {
+        return new KeyMaterialGenerator(null);
+    }
+
+    /**
+     * @param seed The seed.
+     * @return A fast, reproducible generator of NON-SECURE material, for test data only.
+     */
+    public static KeyMaterialGenerator fast(long seed) {
+        return new KeyMaterialGenerator(new SplittableRandom(seed));
+    }
+
+    /**
+     * @return The calling thread's own {@code SecureRandom} instance.
+     */
+    public static SecureRandom secureRandom() {
+        return SECURE_RANDOM.get();
+    }
+
+    /**
+     * Fills a range of an array with random bytes.
+     *
+     * @param data   The array.
+     * @param offset The start of the range.
+     * @param length The length of the range.
+     */
+    public void fill(byte[] data, int offset, int length) {
+        fill(ByteBuffer.wrap(data, offset, length));
+    }
+
+    /**
+     * Fills the remaining bytes of a buffer with random bytes, advancing its' position to the limit.
+     *
+     * @param buffer The buffer.
+     */
+    public void fill(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        int chunks = ParallelUtilities.chunkCount(length, CHUNK_SIZE);
+        SplittableRandom[] splits = split(chunks);
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(buffer.position() + ParallelUtilities.chunkEnd(c, CHUNK_SIZE, length));
+            chunk.position(buffer.position() + c * CHUNK_SIZE);
+            fillChunk(chunk, splits == null ? null : splits[c]);
+        });
+
+        buffer.position(buffer.limit());
+    }
+
+    /**
+     * Creates (or overwrites) a file of random bytes, writing it through memory-mapped regions in parallel.
+     *
+     * @param file   The file.
+     * @param length The length of the file.
+     * @throws IOException If the file can't be written.
+     */
+    public void generateFile(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long start = 0; start < length; start += FILE_REGION_SIZE) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, start,
+                    Math.min(FILE_REGION_SIZE, length - start));
+                fill(region);
+                region.force();
+            }
+        }
+    }
+
+    /**
+     * Generates an array of random integers within a specific range.
+     *
+     * @param size     The size of the array.
+     * @param minValue The minimum value of an item in the array (inclusive).
+     * @param maxValue The maximum value of an item in the array (exclusive).
+     * @return The randomly generated array.
+     */
+    public int[] nextInts(int size, int minValue, int maxValue) {
+        if (splittable != null) {
+            // SplittableRandom isn't thread-safe, so the split goes through the same lock as the chunk splits.
+            return split(1)[0].ints(size, minValue, maxValue).toArray();
+        }
+        return secureRandom().ints(size, minValue, maxValue).toArray();
+    }
+
+    /**
+     * Creates an independent fast generator for each chunk, in a fixed order (null for the secure generator).
+     */
+    private SplittableRandom[] split(int chunks) {
+        if (splittable == null) {
+            return null;
+        }
+
+        SplittableRandom[] splits = new SplittableRandom[chunks];
+        synchronized (splittable) {
+            for (int c = 0; c < chunks; c++) {
+                splits[c] = splittable.split();
+            }
+        }
+        return splits;
+    }
+
+    private static void fillChunk(ByteBuffer chunk, SplittableRandom random) {
+        if (random == null) {
+            byte[] bytes = new byte[chunk.remaining()];
+            secureRandom().nextBytes(bytes);
+            chunk.put(bytes);
+            return;
+        }
+
+        while (chunk.remaining() >= Long.BYTES) {
+            chunk.putLong(random.nextLong());
+        }
+        while (chunk.hasRemaining()) {
+            chunk.put((byte) random.nextInt());
+        }
+    }
+}
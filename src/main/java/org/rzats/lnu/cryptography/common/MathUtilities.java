@@ -1,8 +1,8 @@
 package org.rzats.lnu.cryptography.common;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.util.Random;
 
 public class MathUtilities {
     private MathUtilities() {
@@ -17,30 +17,19 @@ public class MathUtilities {
      * @return The remainder.
      */
     public static int modulo(int i, int j) {
-        while (i < 0) {
-            i += j;
-        }
-
-        return i % j;
+        return Math.floorMod(i, j);
     }
 
     /**
-     * Generates an array of random integer values within a specific range.
+     * Generates an array of cryptographically secure random integer values within a specific range.
      *
      * @param size     The size of the array.
-     * @param minValue The minimum value of an item in the array.
-     * @param maxValue The maximum value of an item in the array.
+     * @param minValue The minimum value of an item in the array (inclusive).
+     * @param maxValue The maximum value of an item in the array (exclusive).
      * @return The randomly generated array.
      */
     public static int[] random(int size, int minValue, int maxValue) {
-        Random random = new Random();
-        int[] result = new int[size];
-
-        for (int i = 0; i < size; i++) {
-            result[i] = random.nextInt(maxValue - minValue) + minValue;
-        }
-
-        return result;
+        return KeyMaterialGenerator.secure().nextInts(size, minValue, maxValue);
     }
 
     /**
@@ -53,62 +42,330 @@ public class MathUtilities {
      * @return An integer such that ax ≅ 1 (mod m).
      */
     public static int modularMultiplicativeInverse(int a, int m) {
-        return modulo(extendedEuclideanAlgorithm(m, a)[2], m);
+        return (int) modularMultiplicativeInverse((long) a, m);
+    }
+
+    /**
+     * Calculates the modular multiplicative inverse of an integer a modulo m.
+     * <p>
+     * Uses the iterative extended Euclidean algorithm, only tracking the coefficient of a.
+     *
+     * @param a An integer.
+     * @param m A positive integer (co-prime to a).
+     * @return An integer x in the range [0, m) such that ax ≅ 1 (mod m).
+     */
+    public static long modularMultiplicativeInverse(long a, long m) {
+        if (m <= 0) {
+            throw new IllegalArgumentException("The modulus must be positive!");
+        }
+
+        // Invariant: t0 * a ≅ r0 and t1 * a ≅ r1 (mod m).
+        long r0 = m;
+        long r1 = Math.floorMod(a, m);
+        long t0 = 0;
+        long t1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1;
+
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+
+        if (r0 != 1) {
+            throw new IllegalArgumentException(a + " is not invertible modulo " + m + "!");
+        }
+        return Math.floorMod(t0, m);
+    }
+
+    /**
+     * Calculates the modular multiplicative inverse of an integer a modulo m.
+     *
+     * @param a An integer.
+     * @param m A positive integer (co-prime to a).
+     * @return An integer x in the range [0, m) such that ax ≅ 1 (mod m).
+     */
+    public static BigInteger modularMultiplicativeInverse(BigInteger a, BigInteger m) {
+        try {
+            return a.modInverse(m);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(a + " is not invertible modulo " + m + "!", e);
+        }
     }
 
+    /**
+     * Iteratively calculates gcd(a, b) and integers x, y such that:
+     * <p>
+     * ax + by = gcd(a,b)
+     * <p>
+     * Nothing is allocated, so the coefficients are written into an array supplied (and possibly reused) by the caller.
+     *
+     * @param a            A non-negative integer.
+     * @param b            A non-negative integer.
+     * @param coefficients An array of at least 2 elements to receive x and y, or null if they aren't needed.
+     * @return gcd(a, b)
+     */
+    public static long extendedEuclideanAlgorithm(long a, long b, long[] coefficients) {
+        // A series of remainders (ri) and two other sequences (si, ti).
+        long r0 = a;
+        long r1 = b;
+        long s0 = 1;
+        long s1 = 0;
+        long t0 = 0;
+        long t1 = 1;
+
+        while (r1 != 0) {
+            // qi.
+            long q = r0 / r1;
+
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+
+            long s = s0 - q * s1;
+            s0 = s1;
+            s1 = s;
+
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+
+        if (coefficients != null) {
+            coefficients[0] = s0;
+            coefficients[1] = t0;
+        }
+        return r0;
+    }
 
     /**
-     * Recursively calculates gcd(a, b) and integers x, y such that:
+     * Iteratively calculates gcd(a, b) and integers x, y such that:
      * <p>
      * ax + by = gcd(a,b)
      *
-     * @param a A positive integer.
-     * @param b A positive integer;
-     * @return A sequence of of gcd(a,b), x and y.
+     * @param a A non-negative integer.
+     * @param b A non-negative integer.
+     * @return A sequence of gcd(a,b), x and y.
      */
-    private static int[] extendedEuclideanAlgorithm(int a, int b) {
+    public static BigInteger[] extendedEuclideanAlgorithm(BigInteger a, BigInteger b) {
         // A series of remainders (ri) and two other sequences (si, ti).
-        int[] sequences = new int[3];
+        BigInteger r0 = a;
+        BigInteger r1 = b;
+        BigInteger s0 = BigInteger.ONE;
+        BigInteger s1 = BigInteger.ZERO;
+        BigInteger t0 = BigInteger.ZERO;
+        BigInteger t1 = BigInteger.ONE;
+
+        while (r1.signum() != 0) {
+            // qi and the next remainder at once.
+            BigInteger[] division = r0.divideAndRemainder(r1);
+            BigInteger q = division[0];
+
+            r0 = r1;
+            r1 = division[1];
+
+            BigInteger s = s0.subtract(q.multiply(s1));
+            s0 = s1;
+            s1 = s;
+
+            BigInteger t = t0.subtract(q.multiply(t1));
+            t0 = t1;
+            t1 = t;
+        }
+
+        return new BigInteger[]{r0, s0, t0};
+    }
+
+    /**
+     * Calculates the modular multiplicative inverses of many integers at once, using Montgomery's trick:
+     * a single inversion of the product of all values, and 3(n-1) multiplications.
+     * <p>
+     * The result array doubles as the storage of the prefix products, so nothing else is allocated.
+     *
+     * @param values   The integers, each co-prime to m.
+     * @param m        A positive integer.
+     * @param inverses The array to receive the inverses (other than {@code values}).
+     * @throws IllegalArgumentException If any value isn't invertible.
+     */
+    public static void batchModularInverse(long[] values, long m, long[] inverses) {
+        if (m <= 0) {
+            throw new IllegalArgumentException("The modulus must be positive!");
+        }
+        int n = values.length;
+        if (inverses == values || inverses.length < n) {
+            throw new IllegalArgumentException("The inverses need a separate array of at least the same length!");
+        }
+        if (n == 0) {
+            return;
+        }
 
-        // qi.
-        int q;
+        // inverses[i] = values[0] * ... * values[i].
+        inverses[0] = Math.floorMod(values[0], m);
+        for (int i = 1; i < n; i++) {
+            inverses[i] = modularMultiply(inverses[i - 1], Math.floorMod(values[i], m), m);
+        }
 
-        if (b == 0) {
-            // Declare the initial values for r, s and t
-            sequences[0] = a;
-            sequences[1] = 1;
-            sequences[2] = 0;
-        } else {
-            q = a / b;
-            sequences = extendedEuclideanAlgorithm(b, a % b);
+        // inverse = (values[0] * ... * values[i])^-1 at the start of every step.
+        long inverse;
+        try {
+            inverse = modularMultiplicativeInverse(inverses[n - 1], m);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not every value is invertible modulo " + m + "!", e);
+        }
+        for (int i = n - 1; i > 0; i--) {
+            long value = Math.floorMod(values[i], m);
+            inverses[i] = modularMultiply(inverse, inverses[i - 1], m);
+            inverse = modularMultiply(inverse, value, m);
+        }
+        inverses[0] = inverse;
+    }
 
-            int temp = sequences[1] - sequences[2] * q;
-            sequences[1] = sequences[2];
-            sequences[2] = temp;
+    /**
+     * Calculates the modular multiplicative inverses of many integers at once, using Montgomery's trick:
+     * a single inversion of the product of all values, and 3(n-1) multiplications.
+     *
+     * @param values The integers, each co-prime to m.
+     * @param m      A positive integer.
+     * @return The inverses, in the order of the values.
+     * @throws IllegalArgumentException If any value isn't invertible.
+     */
+    public static BigInteger[] batchModularInverse(BigInteger[] values, BigInteger m) {
+        if (m.signum() <= 0) {
+            throw new IllegalArgumentException("The modulus must be positive!");
+        }
+        int n = values.length;
+        BigInteger[] inverses = new BigInteger[n];
+        if (n == 0) {
+            return inverses;
         }
 
-        return sequences;
+        // inverses[i] = values[0] * ... * values[i].
+        inverses[0] = values[0].mod(m);
+        for (int i = 1; i < n; i++) {
+            inverses[i] = inverses[i - 1].multiply(values[i]).mod(m);
+        }
+
+        // inverse = (values[0] * ... * values[i])^-1 at the start of every step.
+        BigInteger inverse;
+        try {
+            inverse = modularMultiplicativeInverse(inverses[n - 1], m);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not every value is invertible modulo " + m + "!", e);
+        }
+        for (int i = n - 1; i > 0; i--) {
+            inverses[i] = inverse.multiply(inverses[i - 1]).mod(m);
+            inverse = inverse.multiply(values[i]).mod(m);
+        }
+        inverses[0] = inverse;
+        return inverses;
+    }
+
+    /**
+     * Multiplies two integers modulo m without overflow, and without allocating.
+     * <p>
+     * Moduli below 2^31 multiply directly. Larger ones use Horner's scheme over the digits of b:
+     * r = r * 2^w + a * digit (mod m), with w-bit digits as wide as the headroom above m allows,
+     * so that neither product overflows - e.g. 23-bit digits (two steps) for a 40-bit modulus.
+     *
+     * @param a An integer in the range [0, m).
+     * @param b An integer in the range [0, m).
+     * @param m A positive integer.
+     * @return ab (mod m)
+     */
+    static long modularMultiply(long a, long b, long m) {
+        if (m <= Integer.MAX_VALUE) {
+            return a * b % m;
+        }
+
+        // r < m < 2^(64 - z), so r * 2^w and a * digit stay below 2^63 for w = z - 1.
+        int digitBits = Math.max(Long.numberOfLeadingZeros(m) - 1, 1);
+        long digitMask = (1L << digitBits) - 1;
+        long result = 0;
+        for (int shift = (63 - Long.numberOfLeadingZeros(b)) / digitBits * digitBits; shift >= 0; shift -= digitBits) {
+            result = digitBits == 1 ? modularAdd(result, result, m) : (result << digitBits) % m;
+            result = modularAdd(result, a * ((b >>> shift) & digitMask) % m, m);
+        }
+        return result;
     }
 
+    /**
+     * Adds two integers modulo m without overflow.
+     *
+     * @param a An integer in the range [0, m).
+     * @param b An integer in the range [0, m).
+     * @param m A positive integer.
+     * @return a + b (mod m)
+     */
+    private static long modularAdd(long a, long b, long m) {
+        return a >= m - b ? a - (m - b) : a + b;
+    }
 
     /**
      * Performs modular exponentiation over a modulus.
+     * <p>
+     * Uses right-to-left square-and-multiply, i.e. O(log e) multiplications.
      *
      * @param d The base.
-     * @param e The exponent.
+     * @param e The exponent (non-negative).
      * @param m The divisor.
      * @return d^e (mod m)
      */
     public static int modularExponentiation(int d, int e, int m) {
-        int c = 1;
+        return (int) modularExponentiation((long) d, e, m);
+    }
 
-        for (int i = 0; i < e; i++) {
-            c = ((c * d) % m);
+    /**
+     * Performs modular exponentiation over a modulus.
+     * <p>
+     * Moduli below 2^31 are handled with {@code long} arithmetic, larger ones through {@code BigInteger}.
+     *
+     * @param d The base.
+     * @param e The exponent (non-negative).
+     * @param m The divisor (positive).
+     * @return d^e (mod m)
+     */
+    public static long modularExponentiation(long d, long e, long m) {
+        if (e < 0) {
+            throw new IllegalArgumentException("The exponent must be non-negative!");
+        }
+        if (m > Integer.MAX_VALUE) {
+            return modularExponentiation(BigInteger.valueOf(d), BigInteger.valueOf(e), BigInteger.valueOf(m)).longValue();
+        }
+
+        long base = Math.floorMod(d, m);
+        long c = 1 % m;
+
+        // The products stay below 2^62, so they never overflow.
+        while (e > 0) {
+            if ((e & 1) == 1) {
+                c = (c * base) % m;
+            }
+            base = (base * base) % m;
+            e >>>= 1;
         }
 
         return c;
     }
 
+    /**
+     * Performs modular exponentiation over a modulus.
+     * <p>
+     * Delegates to {@link BigInteger#modPow}, which uses windowed Montgomery exponentiation for odd moduli.
+     * To reuse the precomputation for a fixed modulus, see {@code MontgomeryContext}.
+     *
+     * @param d The base.
+     * @param e The exponent (non-negative).
+     * @param m The divisor (positive).
+     * @return d^e (mod m)
+     */
+    public static BigInteger modularExponentiation(BigInteger d, BigInteger e, BigInteger m) {
+        return d.modPow(e, m);
+    }
+
     /**
      * Rounds a {@code Double} down to a specific number of decimal places.
      * <p>
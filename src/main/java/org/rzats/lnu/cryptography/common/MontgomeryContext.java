@@ -0,0 +1,246 @@
+package org.rzats.lnu.cryptography.common;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo a fixed odd modulus.
+ * <p>
+ * Moduli below 2^31 are word-sized and use Montgomery multiplication on {@code long} values:
+ * a value a is kept as aR (mod M) for R = 2^32, which turns every reduction into multiplications and shifts
+ * instead of a division. Larger moduli use {@code BigInteger} arithmetic, and can also be multiplied
+ * in Montgomery form with R = 2^k, where k is the bit length of M.
+ * <p>
+ * A context is meant to be created once per modulus and shared, e.g. by an RSA key, a Diffie-Hellman group
+ * or a BBS generator.
+ */
+public class MontgomeryContext {
+    /**
+     * The exponent of the Montgomery radix R = 2^32.
+     */
+    private static final int RADIX_BITS = 32;
+    private static final long RADIX_MASK = (1L << RADIX_BITS) - 1;
+
+    /**
+     * The modulus.
+     */
+    private final BigInteger modulus;
+    /**
+     * Whether the modulus fits the word-sized Montgomery arithmetic.
+     */
+    private final boolean wordSized;
+    /**
+     * The modulus as a {@code long} (word-sized moduli only).
+     */
+    private final long n;
+    /**
+     * -M^-1 (mod R) (word-sized moduli only).
+     */
+    private final long nPrime;
+    /**
+     * The exponent k of the {@code BigInteger} Montgomery radix R = 2^k.
+     */
+    private final int bigRadixBits;
+    /**
+     * R - 1, used to reduce values modulo R.
+     */
+    private final BigInteger bigRadixMask;
+    /**
+     * -M^-1 (mod R) for the {@code BigInteger} Montgomery radix.
+     */
+    private final BigInteger bigNPrime;
+
+    public MontgomeryContext(BigInteger modulus) {
+        if (modulus.signum() <= 0 || !modulus.testBit(0)) {
+            throw new IllegalArgumentException("The modulus must be a positive odd number!");
+        }
+
+        this.modulus = modulus;
+        this.wordSized = modulus.bitLength() < RADIX_BITS;
+
+        if (wordSized) {
+            this.n = modulus.longValue();
+
+            // Newton's iteration doubles the amount of correct low bits of the inverse every step.
+            long inverse = n;
+            for (int i = 0; i < 5; i++) {
+                inverse *= 2 - n * inverse;
+            }
+            this.nPrime = -inverse & RADIX_MASK;
+        } else {
+            this.n = 0;
+            this.nPrime = 0;
+        }
+
+        this.bigRadixBits = modulus.bitLength();
+        BigInteger radix = BigInteger.ONE.shiftLeft(bigRadixBits);
+        this.bigRadixMask = radix.subtract(BigInteger.ONE);
+        this.bigNPrime = radix.subtract(modulus.modInverse(radix));
+    }
+
+    public BigInteger getModulus() {
+        return modulus;
+    }
+
+    /**
+     * @return Whether the {@code long} operations of this context can be used.
+     */
+    public boolean isWordSized() {
+        return wordSized;
+    }
+
+    /**
+     * Converts a value into Montgomery form.
+     *
+     * @param a A value in the range [0, M).
+     * @return aR (mod M)
+     */
+    public long toMontgomery(long a) {
+        checkWordSized();
+        return (a << RADIX_BITS) % n;
+    }
+
+    /**
+     * Converts a value out of Montgomery form.
+     *
+     * @param a A value in Montgomery form.
+     * @return aR^-1 (mod M)
+     */
+    public long fromMontgomery(long a) {
+        return reduce(a);
+    }
+
+    /**
+     * Multiplies two values in Montgomery form.
+     *
+     * @param a A value in Montgomery form.
+     * @param b A value in Montgomery form.
+     * @return The Montgomery form of the product.
+     */
+    public long multiply(long a, long b) {
+        return reduce(a * b);
+    }
+
+    /**
+     * Squares a value in Montgomery form.
+     *
+     * @param a A value in Montgomery form.
+     * @return The Montgomery form of the square.
+     */
+    public long square(long a) {
+        return reduce(a * a);
+    }
+
+    /**
+     * Squares a value.
+     *
+     * @param a A value in the range [0, M).
+     * @return a^2 (mod M)
+     */
+    public BigInteger square(BigInteger a) {
+        return a.multiply(a).mod(modulus);
+    }
+
+    /**
+     * Converts a value into {@code BigInteger} Montgomery form.
+     *
+     * @param a A value in the range [0, M).
+     * @return aR (mod M)
+     */
+    public BigInteger toMontgomery(BigInteger a) {
+        return a.shiftLeft(bigRadixBits).mod(modulus);
+    }
+
+    /**
+     * Converts a value out of {@code BigInteger} Montgomery form.
+     *
+     * @param a A value in Montgomery form.
+     * @return aR^-1 (mod M)
+     */
+    public BigInteger fromMontgomery(BigInteger a) {
+        return reduce(a);
+    }
+
+    /**
+     * Multiplies two values in {@code BigInteger} Montgomery form.
+     * <p>
+     * Takes three multiplications and a few shifts, which is still several times faster than a division.
+     *
+     * @param a A value in Montgomery form.
+     * @param b A value in Montgomery form.
+     * @return The Montgomery form of the product.
+     */
+    public BigInteger multiply(BigInteger a, BigInteger b) {
+        return reduce(a.multiply(b));
+    }
+
+    /**
+     * Raises a value to a power using left-to-right square-and-multiply in Montgomery form.
+     *
+     * @param base     A value in the range [0, M).
+     * @param exponent A non-negative exponent.
+     * @return base^exponent (mod M)
+     */
+    public long pow(long base, long exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("The exponent must be non-negative!");
+        }
+
+        long b = toMontgomery(base);
+        long c = toMontgomery(1 % n);
+        for (int i = 63 - Long.numberOfLeadingZeros(exponent); i >= 0; i--) {
+            c = square(c);
+            if (((exponent >>> i) & 1) == 1) {
+                c = multiply(c, b);
+            }
+        }
+        return fromMontgomery(c);
+    }
+
+    /**
+     * Raises a value to a power.
+     * <p>
+     * Word-sized moduli use {@link #pow(long, long)} when the exponent fits in a {@code long},
+     * others use {@link BigInteger#modPow}, which itself works in Montgomery form for odd moduli.
+     *
+     * @param base     A value.
+     * @param exponent A non-negative exponent.
+     * @return base^exponent (mod M)
+     */
+    public BigInteger pow(BigInteger base, BigInteger exponent) {
+        if (wordSized && exponent.bitLength() < Long.SIZE) {
+            return BigInteger.valueOf(pow(base.mod(modulus).longValue(), exponent.longValue()));
+        }
+        return base.modPow(exponent, modulus);
+    }
+
+    /**
+     * Montgomery reduction (REDC).
+     *
+     * @param t A value below M*R.
+     * @return tR^-1 (mod M)
+     */
+    private long reduce(long t) {
+        // m is chosen so that t + m*M is divisible by R. The sum stays below 2^64, so an unsigned shift divides it.
+        long m = ((t & RADIX_MASK) * nPrime) & RADIX_MASK;
+        long u = (t + m * n) >>> RADIX_BITS;
+        return u >= n ? u - n : u;
+    }
+
+    /**
+     * {@code BigInteger} Montgomery reduction (REDC).
+     *
+     * @param t A value below M*R.
+     * @return tR^-1 (mod M)
+     */
+    private BigInteger reduce(BigInteger t) {
+        BigInteger m = t.and(bigRadixMask).multiply(bigNPrime).and(bigRadixMask);
+        BigInteger u = t.add(m.multiply(modulus)).shiftRight(bigRadixBits);
+        return u.compareTo(modulus) >= 0 ? u.subtract(modulus) : u;
+    }
+
+    private void checkWordSized() {
+        if (!wordSized) {
+            throw new IllegalStateException("The modulus is too large for word-sized arithmetic");
+        }
+    }
+}
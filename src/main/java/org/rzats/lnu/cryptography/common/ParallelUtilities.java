@@ -0,0 +1,59 @@
+package org.rzats.lnu.cryptography.common;
+
+import java.util.stream.IntStream;
+
+/**
+ * Splits messages into fixed-size chunks processed on the common fork/join pool.
+ * <p>
+ * The chunk bounds are computed without overflowing, whatever the length of the message.
+ */
+public class ParallelUtilities {
+    private ParallelUtilities() {
+
+    }
+
+    /**
+     * @param length    The length of the message.
+     * @param chunkSize The size of every chunk but the last one.
+     * @return The amount of chunks the message is split into.
+     */
+    public static int chunkCount(int length, int chunkSize) {
+        return length / chunkSize + (length % chunkSize == 0 ? 0 : 1);
+    }
+
+    /**
+     * @param chunk     The index of the chunk.
+     * @param chunkSize The size of every chunk but the last one.
+     * @param length    The length of the message.
+     * @return The end of the chunk (exclusive).
+     */
+    public static int chunkEnd(int chunk, int chunkSize, int length) {
+        int start = chunk * chunkSize;
+        return start + Math.min(chunkSize, length - start);
+    }
+
+    /**
+     * Processes a message in chunks, in parallel if there is more than one.
+     * The index of a chunk is its' start divided by the chunk size.
+     *
+     * @param length    The length of the message.
+     * @param chunkSize The size of every chunk but the last one.
+     * @param processor Processes a range of the message.
+     */
+    public static void inChunks(int length, int chunkSize, RangeProcessor processor) {
+        if (length <= chunkSize) {
+            processor.process(0, length);
+            return;
+        }
+
+        IntStream.range(0, chunkCount(length, chunkSize)).parallel().forEach(c ->
+            processor.process(c * chunkSize, chunkEnd(c, chunkSize, length)));
+    }
+
+    /**
+     * Processes the range [from, to) of a message.
+     */
+    public interface RangeProcessor {
+        void process(int from, int to);
+    }
+}
@@ -0,0 +1,88 @@
+package org.rzats.lnu.cryptography.cryptanalysis;
+
+import org.rzats.lnu.cryptography.common.CryptoConstants;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * A ciphertext-only attack on the Caesar cipher, using the chi-squared statistic.
+ * <p>
+ * Shifting a message rotates its' letter histogram, so every shift can be scored against the English letter
+ * frequencies by rotating the histogram of the ciphertext rather than decrypting it. The ciphertext is scanned
+ * once to build the histogram, and scoring the 26 shifts costs O(26²) whatever the length of the message.
+ */
+public class CaesarBreaker {
+    private CaesarBreaker() {
+
+    }
+
+    /**
+     * Ranks the shifts a text may have been encrypted with.
+     *
+     * @param ciphertext The ciphertext.
+     * @return The shifts, from the most to the least likely.
+     */
+    public static int[] rankShifts(CharSequence ciphertext) {
+        return rankShifts(TextUtilities.letterCounts(ciphertext));
+    }
+
+    /**
+     * Ranks the shifts a file of single-byte (e.g. ASCII) text may have been encrypted with.
+     *
+     * @param ciphertext The ciphertext file.
+     * @return The shifts, from the most to the least likely.
+     * @throws IOException If the file can't be read.
+     */
+    public static int[] rankShifts(Path ciphertext) throws IOException {
+        return rankShifts(TextUtilities.letterCounts(ciphertext));
+    }
+
+    /**
+     * Ranks the shifts a text may have been encrypted with.
+     *
+     * @param counts The count of each letter of the ciphertext, from A to Z.
+     * @return The shifts, from the most to the least likely (the lowest chi-squared statistic first).
+     */
+    public static int[] rankShifts(long[] counts) {
+        double[] scores = chiSquared(counts);
+        return IntStream.range(0, CryptoConstants.ALPHABET_SIZE)
+            .boxed()
+            .sorted(Comparator.comparingDouble(shift -> scores[shift]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Scores every shift by how far the decrypted letter counts are from the English letter frequencies.
+     *
+     * @param counts The count of each letter of the ciphertext, from A to Z.
+     * @return The chi-squared statistic of each shift, from 0 to 25 (all zero if there are no letters).
+     */
+    public static double[] chiSquared(long[] counts) {
+        if (counts.length != CryptoConstants.ALPHABET_SIZE) {
+            throw new IllegalArgumentException("There must be a count for each letter of the alphabet!");
+        }
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        double[] english = TextUtilities.englishFrequencies();
+        double[] scores = new double[CryptoConstants.ALPHABET_SIZE];
+        for (int shift = 0; shift < CryptoConstants.ALPHABET_SIZE && total > 0; shift++) {
+            double score = 0;
+            for (int letter = 0; letter < CryptoConstants.ALPHABET_SIZE; letter++) {
+                // Plaintext letter i was encrypted into letter i + shift.
+                double expected = total * english[letter];
+                double difference = counts[(letter + shift) % CryptoConstants.ALPHABET_SIZE] - expected;
+                score += difference * difference / expected;
+            }
+            scores[shift] = score;
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,236 @@
+package org.rzats.lnu.cryptography.cryptanalysis;
+
+import org.rzats.lnu.cryptography.ciphers.SimplifiedDESCipher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * An exhaustive known-plaintext key search for Simplified DES.
+ * <p>
+ * The search is bitsliced: bit j of every {@code long} belongs to a different key, so each pass through the
+ * algorithm tests 64 keys at once. The 1024 keys form 16 such batches, which are searched in parallel.
+ * A batch stops as soon as none of its' keys match the pairs checked so far.
+ * <p>
+ * There are only 256 possible blocks, so repeated pairs are checked once, whatever the amount of pairs given.
+ */
+public class SimplifiedDESKeySearch {
+    private static final int KEY_LENGTH = 10;
+    private static final int LANE_BITS = 6;
+    private static final int BATCHES = 1 << (KEY_LENGTH - LANE_BITS);
+
+    /**
+     * The lanes in which bit b of the lane index is set - the low 6 key bits of the keys in a batch.
+     */
+    private static final long[] LANE_MASKS = {
+        0xAAAAAAAAAAAAAAAAL,
+        0xCCCCCCCCCCCCCCCCL,
+        0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L,
+        0xFFFF0000FFFF0000L,
+        0xFFFFFFFF00000000L
+    };
+
+    /**
+     * The key bit each bit of the packed K1/K2 subkeys is taken from.
+     */
+    private static final int[] SUBKEY_SOURCES = sources(16, KEY_LENGTH, SimplifiedDESCipher::generateSubkeys);
+    /**
+     * The half bit each bit of the expansion/permutation is taken from.
+     */
+    private static final int[] EXPANSION_SOURCES = sources(8, 4, SimplifiedDESCipher::expand);
+    /**
+     * The bit each bit of the final permutation is taken from.
+     */
+    private static final int[] FINAL_SOURCES = sources(8, 8, SimplifiedDESCipher::finalPermutation);
+
+    /**
+     * The contribution of the high (S0) and low (S1) 4 bits of the substitution input to its' output.
+     * The substitution is the XOR of the two, since the S-boxes are independent and P4 only moves bits.
+     */
+    private static final int[] HIGH_SUBSTITUTION = new int[16];
+    private static final int[] LOW_SUBSTITUTION = new int[16];
+
+    static {
+        for (int v = 0; v < 16; v++) {
+            HIGH_SUBSTITUTION[v] = SimplifiedDESCipher.substitute(v << 4);
+            LOW_SUBSTITUTION[v] = SimplifiedDESCipher.substitute(v) ^ SimplifiedDESCipher.substitute(0);
+        }
+    }
+
+    private SimplifiedDESKeySearch() {
+
+    }
+
+    /**
+     * Finds every key that encrypts each of the given plaintext blocks into the corresponding ciphertext block.
+     *
+     * @param plaintexts  The known 8-bit plaintext blocks.
+     * @param ciphertexts The corresponding 8-bit ciphertext blocks.
+     * @return The matching 10-bit keys, in ascending order.
+     */
+    public static List<Integer> findKeys(int[] plaintexts, int[] ciphertexts) {
+        if (plaintexts.length != ciphertexts.length) {
+            throw new IllegalArgumentException("Every plaintext block needs a corresponding ciphertext block!");
+        }
+
+        List<Integer> keys = new ArrayList<>();
+
+        // Collect the distinct pairs - a plaintext block paired with two different ciphertext blocks matches no key.
+        int[] pairs = new int[256];
+        Arrays.fill(pairs, -1);
+        int distinct = 0;
+        for (int i = 0; i < plaintexts.length; i++) {
+            int plaintext = plaintexts[i] & 0xFF;
+            if (pairs[plaintext] == -1) {
+                pairs[plaintext] = ciphertexts[i] & 0xFF;
+                distinct++;
+            } else if (pairs[plaintext] != (ciphertexts[i] & 0xFF)) {
+                return keys;
+            }
+        }
+
+        int[] distinctPlaintexts = new int[distinct];
+        int[] distinctCiphertexts = new int[distinct];
+        for (int plaintext = 0, i = 0; plaintext < pairs.length; plaintext++) {
+            if (pairs[plaintext] != -1) {
+                distinctPlaintexts[i] = plaintext;
+                distinctCiphertexts[i] = pairs[plaintext];
+                i++;
+            }
+        }
+
+        long[] matches = new long[BATCHES];
+        IntStream.range(0, BATCHES).parallel().forEach(batch ->
+            matches[batch] = searchBatch(batch, distinctPlaintexts, distinctCiphertexts));
+
+        for (int batch = 0; batch < BATCHES; batch++) {
+            for (int lane = 0; lane < Long.SIZE; lane++) {
+                if ((matches[batch] >>> lane & 1) != 0) {
+                    keys.add((batch << LANE_BITS) | lane);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Tests the 64 keys of a batch against all the pairs.
+     *
+     * @return The lanes whose keys match every pair.
+     */
+    private static long searchBatch(int batch, int[] plaintexts, int[] ciphertexts) {
+        long[] key = new long[KEY_LENGTH];
+        for (int b = 0; b < KEY_LENGTH; b++) {
+            key[b] = b < LANE_BITS ? LANE_MASKS[b] : broadcast(batch, b - LANE_BITS);
+        }
+
+        // The subkeys are a selection of the key bits - K2 in bits 0-7, K1 in bits 8-15.
+        long[] k1 = new long[8];
+        long[] k2 = new long[8];
+        for (int t = 0; t < 8; t++) {
+            k2[t] = key[SUBKEY_SOURCES[t]];
+            k1[t] = key[SUBKEY_SOURCES[t + 8]];
+        }
+
+        long[] input = new long[8];
+        long[] left = new long[4];
+        long[] swapped = new long[4];
+        long[] combined = new long[8];
+
+        long candidates = -1L;
+        for (int i = 0; i < plaintexts.length && candidates != 0; i++) {
+            // The plaintext is the same for every key, so the first steps need no bitslicing.
+            int buffer = SimplifiedDESCipher.initialPermutation(plaintexts[i]);
+            int constantLeft = buffer >>> 4;
+            int constantRight = buffer & 0xF;
+
+            // Round 1.
+            int expanded = SimplifiedDESCipher.expand(constantRight);
+            for (int t = 0; t < 8; t++) {
+                input[t] = broadcast(expanded, t) ^ k1[t];
+            }
+            substitute(input, left);
+            for (int t = 0; t < 4; t++) {
+                left[t] ^= broadcast(constantLeft, t);
+            }
+
+            // Round 2.
+            for (int t = 0; t < 8; t++) {
+                input[t] = left[EXPANSION_SOURCES[t]] ^ k2[t];
+            }
+            substitute(input, swapped);
+            for (int t = 0; t < 4; t++) {
+                swapped[t] ^= broadcast(constantRight, t);
+                combined[t] = left[t];
+                combined[t + 4] = swapped[t];
+            }
+
+            // Apply the final permutation and keep the keys whose every bit matches the ciphertext.
+            for (int t = 0; t < 8; t++) {
+                candidates &= ~(combined[FINAL_SOURCES[t]] ^ broadcast(ciphertexts[i], t));
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Applies the S-boxes and P4 to 64 inputs at once.
+     * <p>
+     * Each of the 16 possible values of a 4-bit S-box input selects a disjoint set of lanes,
+     * which is added to the output bits that value sets.
+     *
+     * @param input  The 8 input bits.
+     * @param output The array to write the 4 output bits to.
+     */
+    private static void substitute(long[] input, long[] output) {
+        for (int t = 0; t < 4; t++) {
+            output[t] = 0;
+        }
+
+        for (int v = 0; v < 16; v++) {
+            long high = -1L;
+            long low = -1L;
+            for (int b = 0; b < 4; b++) {
+                high &= ((v >>> b) & 1) != 0 ? input[b + 4] : ~input[b + 4];
+                low &= ((v >>> b) & 1) != 0 ? input[b] : ~input[b];
+            }
+
+            for (int t = 0; t < 4; t++) {
+                output[t] ^= (broadcast(HIGH_SUBSTITUTION[v], t) & high) ^ (broadcast(LOW_SUBSTITUTION[v], t) & low);
+            }
+        }
+    }
+
+    /**
+     * @return All ones if bit b of a value is set, all zeroes otherwise.
+     */
+    private static long broadcast(int value, int b) {
+        return -((long) (value >>> b) & 1);
+    }
+
+    /**
+     * Finds where each output bit of a bit permutation comes from by permuting one set bit at a time.
+     *
+     * @param outputBits  The amount of output bits.
+     * @param inputBits   The amount of input bits.
+     * @param permutation The bit permutation.
+     * @return The input bit each output bit is taken from.
+     */
+    private static int[] sources(int outputBits, int inputBits, IntUnaryOperator permutation) {
+        int[] sources = new int[outputBits];
+        for (int b = 0; b < inputBits; b++) {
+            int output = permutation.applyAsInt(1 << b);
+            for (int t = 0; t < outputBits; t++) {
+                if ((output >>> t & 1) != 0) {
+                    sources[t] = b;
+                }
+            }
+        }
+        return sources;
+    }
+}
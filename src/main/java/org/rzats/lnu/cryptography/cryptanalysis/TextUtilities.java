@@ -1,15 +1,77 @@
 package org.rzats.lnu.cryptography.cryptanalysis;
 
+import org.rzats.lnu.cryptography.common.CryptoConstants;
 import org.rzats.lnu.cryptography.common.MathUtilities;
+import org.rzats.lnu.cryptography.common.ParallelUtilities;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.IntStream;
 
+/**
+ * Character frequency analysis.
+ * <p>
+ * Letters are counted case-insensitively into a primitive {@code long[26]} histogram in a single pass,
+ * using a 256-entry lookup table; every other character is ignored. Large inputs are split into chunks
+ * counted in parallel, with a histogram per task merged at the end.
+ */
 public class TextUtilities {
+    /**
+     * The size of the chunks counted in parallel.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 24;
+    /**
+     * The index of the counter that absorbs every character other than a Latin letter.
+     */
+    private static final int OTHER = CryptoConstants.ALPHABET_SIZE;
+    /**
+     * Maps a byte (or a character below 256) to the index of its' letter, or {@link #OTHER}.
+     */
+    private static final byte[] LETTER_INDEX = new byte[256];
+    /**
+     * The relative frequencies of the letters in English text, from A to Z.
+     */
+    private static final double[] ENGLISH_FREQUENCIES = {
+        0.08167, 0.01492, 0.02782, 0.04253, 0.12702, 0.02228, 0.02015, 0.06094, 0.06966, 0.00154,
+        0.00772, 0.04025, 0.02406, 0.06749, 0.07507, 0.01929, 0.00095, 0.05987, 0.06327, 0.09056,
+        0.02758, 0.00978, 0.02351, 0.00150, 0.01974, 0.00074
+    };
+
+    static {
+        for (int i = 0; i < LETTER_INDEX.length; i++) {
+            LETTER_INDEX[i] = OTHER;
+        }
+        for (int i = 0; i < CryptoConstants.ALPHABET_SIZE; i++) {
+            LETTER_INDEX[CryptoConstants.ASCII_A_UPPERCASE + i] = (byte) i;
+            LETTER_INDEX[CryptoConstants.ASCII_A_LOWERCASE + i] = (byte) i;
+        }
+    }
+
     private TextUtilities() {
 
     }
 
+    /**
+     * @return The relative frequencies of the letters in English text, from A to Z.
+     */
+    public static double[] englishFrequencies() {
+        return ENGLISH_FREQUENCIES.clone();
+    }
+
+    /**
+     * @return The character frequency distribution table of English text.
+     */
+    public static Map<Character, Double> englishFrequencyDistribution() {
+        return toDistribution(ENGLISH_FREQUENCIES);
+    }
+
     /**
      * Build a character frequency distribution table for a given string.
      *
@@ -17,18 +79,176 @@ public class TextUtilities {
      * @return A frequency distribution table for the given string.
      */
     public static Map<Character, Double> frequencyDistribution(String text) {
-        // Remove non-alphabetic characters and convert to uppercase
-        text = text.replaceAll("[^a-zA-Z]", "").toUpperCase();
-        Map<Character, Double> frequencyDistribution = new HashMap<>(26);
-        for (char c = 'A'; c <= 'Z'; c++) {
-            frequencyDistribution.put(c, 0.0);
+        double[] frequencies = frequencies(letterCounts(text));
+        for (int i = 0; i < CryptoConstants.ALPHABET_SIZE; i++) {
+            frequencies[i] = MathUtilities.round(frequencies[i], 5);
+        }
+        return toDistribution(frequencies);
+    }
+
+    /**
+     * Converts letter counts to relative frequencies.
+     *
+     * @param counts The counts of each letter.
+     * @return The frequency of each letter (all zero if there are no letters).
+     */
+    public static double[] frequencies(long[] counts) {
+        long total = 0;
+        for (int i = 0; i < CryptoConstants.ALPHABET_SIZE; i++) {
+            total += counts[i];
         }
-        for (Character c : text.toCharArray()) {
-            frequencyDistribution.put(c, frequencyDistribution.get(c) + 1);
+
+        double[] frequencies = new double[CryptoConstants.ALPHABET_SIZE];
+        for (int i = 0; i < CryptoConstants.ALPHABET_SIZE && total > 0; i++) {
+            frequencies[i] = (double) counts[i] / total;
         }
-        for (char c = 'A'; c <= 'Z'; c++) {
-            frequencyDistribution.put(c, MathUtilities.round(frequencyDistribution.get(c) / text.length(), 5));
+        return frequencies;
+    }
+
+    /**
+     * Counts the Latin letters of a text.
+     *
+     * @param text The text.
+     * @return The count of each letter, from A to Z.
+     */
+    public static long[] letterCounts(CharSequence text) {
+        long[] counts = new long[CryptoConstants.ALPHABET_SIZE + 1];
+        for (int i = 0; i < text.length(); i++) {
+            counts[index(text.charAt(i))]++;
+        }
+        return letters(counts);
+    }
+
+    /**
+     * Counts the Latin letters read from a reader, in chunks of {@link CryptoConstants#STREAM_CHUNK_SIZE}.
+     *
+     * @param reader The reader, consumed until its' end.
+     * @return The count of each letter, from A to Z.
+     * @throws IOException If reading fails.
+     */
+    public static long[] letterCounts(Reader reader) throws IOException {
+        long[] counts = new long[CryptoConstants.ALPHABET_SIZE + 1];
+        char[] chunk = new char[CryptoConstants.STREAM_CHUNK_SIZE];
+        int read;
+        while ((read = reader.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                counts[index(chunk[i])]++;
+            }
+        }
+        return letters(counts);
+    }
+
+    /**
+     * Counts the Latin letters of the remaining bytes of a buffer of single-byte (e.g. ASCII) text,
+     * in parallel for large buffers. The buffer's position is left unchanged.
+     *
+     * @param buffer The buffer.
+     * @return The count of each letter, from A to Z.
+     */
+    public static long[] letterCounts(ByteBuffer buffer) {
+        int position = buffer.position();
+        int length = buffer.remaining();
+        int chunks = ParallelUtilities.chunkCount(length, PARALLEL_CHUNK_SIZE);
+
+        long[] counts = IntStream.range(0, chunks).parallel().collect(
+            () -> new long[CryptoConstants.ALPHABET_SIZE + 1],
+            (histogram, c) -> {
+                ByteBuffer chunk = buffer.duplicate();
+                chunk.limit(position + ParallelUtilities.chunkEnd(c, PARALLEL_CHUNK_SIZE, length))
+                    .position(position + c * PARALLEL_CHUNK_SIZE);
+                count(chunk, histogram);
+            },
+            TextUtilities::merge);
+        return letters(counts);
+    }
+
+    /**
+     * Counts the Latin letters of a file of single-byte (e.g. ASCII) text.
+     * <p>
+     * The file is memory-mapped one chunk at a time, and the chunks are counted in parallel,
+     * so files of any size are read in a single pass.
+     *
+     * @param file The file.
+     * @return The count of each letter, from A to Z.
+     * @throws IOException If the file can't be read.
+     */
+    public static long[] letterCounts(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunks = (size + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+            if (chunks > Integer.MAX_VALUE) {
+                throw new IOException("The file is too large: " + file);
+            }
+
+            long[] counts = IntStream.range(0, (int) chunks).parallel().collect(
+                () -> new long[CryptoConstants.ALPHABET_SIZE + 1],
+                (histogram, c) -> {
+                    long start = (long) c * PARALLEL_CHUNK_SIZE;
+                    long length = Math.min(PARALLEL_CHUNK_SIZE, size - start);
+                    try {
+                        count(channel.map(FileChannel.MapMode.READ_ONLY, start, length), histogram);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                TextUtilities::merge);
+            return letters(counts);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Adds the letters of the remaining bytes of a buffer to a histogram, advancing the buffer's position.
+     */
+    private static void count(ByteBuffer buffer, long[] histogram) {
+        // The counters of a chunk fit an int, which keeps the inner loop on ints.
+        int[] counts = new int[CryptoConstants.ALPHABET_SIZE + 1];
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int end = buffer.arrayOffset() + buffer.limit();
+            for (int i = buffer.arrayOffset() + buffer.position(); i < end; i++) {
+                counts[LETTER_INDEX[array[i] & 0xFF]]++;
+            }
+            buffer.position(buffer.limit());
+        } else {
+            // Absolute reads of a direct or mapped buffer need no copy.
+            int end = buffer.limit();
+            for (int i = buffer.position(); i < end; i++) {
+                counts[LETTER_INDEX[buffer.get(i) & 0xFF]]++;
+            }
+            buffer.position(end);
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            histogram[i] += counts[i];
+        }
+    }
+
+    private static Map<Character, Double> toDistribution(double[] frequencies) {
+        Map<Character, Double> frequencyDistribution = new HashMap<>(CryptoConstants.ALPHABET_SIZE);
+        for (int i = 0; i < CryptoConstants.ALPHABET_SIZE; i++) {
+            frequencyDistribution.put((char) (CryptoConstants.ASCII_A_UPPERCASE + i), frequencies[i]);
         }
         return frequencyDistribution;
     }
+
+    private static int index(char c) {
+        return c < LETTER_INDEX.length ? LETTER_INDEX[c] : OTHER;
+    }
+
+    private static void merge(long[] histogram, long[] other) {
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other[i];
+        }
+    }
+
+    /**
+     * Drops the counter of other characters.
+     */
+    private static long[] letters(long[] counts) {
+        long[] letters = new long[CryptoConstants.ALPHABET_SIZE];
+        System.arraycopy(counts, 0, letters, 0, letters.length);
+        return letters;
+    }
 }
@@ -0,0 +1,212 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.rzats.lnu.cryptography.common.KeyMaterialGenerator;
+import org.rzats.lnu.cryptography.common.MathUtilities;
+import org.rzats.lnu.cryptography.common.MontgomeryContext;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The public parameters of the Diffie-Hellman Key Exchange shared between parties - a prime modulus and a base.
+ * <p>
+ * As every party raises the same base to its' private key, the group precomputes a fixed-base window table:
+ * row i holds base^(j * 2^(w*i)) for every w-bit digit j. Raising the base to an exponent then takes
+ * a single multiplication per digit of the exponent and no squarings at all.
+ * The table is kept in Montgomery form, so those multiplications need no division either.
+ */
+public class DiffieHellmanGroup {
+    /**
+     * The default window width in bits.
+     */
+    public static final int DEFAULT_WINDOW_BITS = 6;
+
+    /**
+     * The maximum amount of shared groups kept at a time.
+     */
+    private static final int MAX_SHARED_GROUPS = 16;
+
+    /**
+     * Groups shared by every party that uses the same parameters, least recently used first.
+     * Guarded by its' own lock, which is never held while a table is built.
+     */
+    private static final Map<List<BigInteger>, SharedGroup> GROUPS =
+        new LinkedHashMap<List<BigInteger>, SharedGroup>(MAX_SHARED_GROUPS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<BigInteger>, SharedGroup> eldest) {
+                return size() > MAX_SHARED_GROUPS;
+            }
+        };
+
+    private final BigInteger modulus;
+    private final BigInteger base;
+    private final int windowBits;
+    private final MontgomeryContext context;
+    /**
+     * The window table in Montgomery form - table[i][j] = base^(j * 2^(w*i)) (mod modulus).
+     */
+    private final BigInteger[][] table;
+
+    /**
+     * @param modulus    An odd prime modulus.
+     * @param base       A base in the range [2, modulus).
+     * @param windowBits The window width in bits (1 to 8) - every extra bit halves the multiplications
+     *                   while roughly doubling the table size.
+     */
+    public DiffieHellmanGroup(BigInteger modulus, BigInteger base, int windowBits) {
+        if (modulus.compareTo(BigInteger.valueOf(3)) < 0 || !modulus.testBit(0)) {
+            throw new IllegalArgumentException("The modulus must be an odd prime!");
+        }
+        if (base.compareTo(BigInteger.ONE) <= 0 || base.compareTo(modulus) >= 0) {
+            throw new IllegalArgumentException("The base must be in the range [2, modulus)!");
+        }
+        if (windowBits < 1 || windowBits > 8) {
+            throw new IllegalArgumentException("The window must be between 1 and 8 bits wide!");
+        }
+
+        this.modulus = modulus;
+        this.base = base;
+        this.windowBits = windowBits;
+        this.context = new MontgomeryContext(modulus);
+
+        // Exponents are below the modulus, so they have at most as many digits as it.
+        int rows = (modulus.bitLength() + windowBits - 1) / windowBits;
+        int columns = 1 << windowBits;
+
+        // The first column of every row - base^(2^(w*i)) - depends on the previous row, the rest can run in parallel.
+        BigInteger[] rowBases = new BigInteger[rows];
+        rowBases[0] = context.toMontgomery(base);
+        for (int i = 1; i < rows; i++) {
+            BigInteger value = rowBases[i - 1];
+            for (int j = 0; j < windowBits; j++) {
+                value = context.multiply(value, value);
+            }
+            rowBases[i] = value;
+        }
+
+        BigInteger one = context.toMontgomery(BigInteger.ONE);
+        this.table = new BigInteger[rows][columns];
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            table[i][0] = one;
+            for (int j = 1; j < columns; j++) {
+                table[i][j] = context.multiply(table[i][j - 1], rowBases[i]);
+            }
+        });
+    }
+
+    /**
+     * Returns the group shared by every party using these parameters, creating it on first use.
+     * <p>
+     * Only the {@value #MAX_SHARED_GROUPS} most recently used groups are kept; callers that need a group
+     * for longer should hold on to the returned instance. Parties asking for the same new group wait for
+     * a single table to be built, without blocking parties asking for other groups.
+     *
+     * @param modulus A prime modulus.
+     * @param base    A base in the range [2, modulus).
+     * @return The shared group.
+     */
+    public static DiffieHellmanGroup of(BigInteger modulus, BigInteger base) {
+        List<BigInteger> key = Arrays.asList(modulus, base);
+        SharedGroup shared = new SharedGroup(modulus, base);
+        synchronized (GROUPS) {
+            SharedGroup existing = GROUPS.putIfAbsent(key, shared);
+            if (existing != null) {
+                shared = existing;
+            }
+        }
+
+        try {
+            return shared.get();
+        } catch (RuntimeException e) {
+            // Don't keep a slot for parameters that can't form a group.
+            synchronized (GROUPS) {
+                GROUPS.remove(key, shared);
+            }
+            throw e;
+        }
+    }
+
+    public BigInteger getModulus() {
+        return modulus;
+    }
+
+    public BigInteger getBase() {
+        return base;
+    }
+
+    /**
+     * @return A random private key in the range [1, modulus - 2].
+     */
+    public BigInteger generatePrivateKey() {
+        BigInteger bound = modulus.subtract(BigInteger.valueOf(2));
+        BigInteger key;
+        do {
+            key = new BigInteger(bound.bitLength(), KeyMaterialGenerator.secureRandom());
+        } while (key.compareTo(bound) >= 0);
+        return key.add(BigInteger.ONE);
+    }
+
+    /**
+     * Raises the base to a power using the window table.
+     *
+     * @param exponent A non-negative exponent.
+     * @return base^exponent (mod modulus)
+     */
+    public BigInteger exponentiate(BigInteger exponent) {
+        if (exponent.signum() < 0) {
+            throw new IllegalArgumentException("The exponent must be non-negative!");
+        }
+        if (exponent.bitLength() > table.length * windowBits) {
+            return MathUtilities.modularExponentiation(base, exponent, modulus);
+        }
+
+        BigInteger result = null;
+        int rows = (exponent.bitLength() + windowBits - 1) / windowBits;
+        for (int i = 0; i < rows; i++) {
+            int digit = 0;
+            for (int j = windowBits - 1; j >= 0; j--) {
+                digit = (digit << 1) | (exponent.testBit(i * windowBits + j) ? 1 : 0);
+            }
+            if (digit != 0) {
+                result = result == null ? table[i][digit] : context.multiply(result, table[i][digit]);
+            }
+        }
+        return result == null ? BigInteger.ONE : context.fromMontgomery(result);
+    }
+
+    /**
+     * Raises another party's public key to a power.
+     *
+     * @param publicKey The other party's public key.
+     * @param exponent  A non-negative exponent.
+     * @return publicKey^exponent (mod modulus)
+     */
+    public BigInteger exponentiate(BigInteger publicKey, BigInteger exponent) {
+        return MathUtilities.modularExponentiation(publicKey, exponent, modulus);
+    }
+
+    /**
+     * Builds a shared group on first use and remembers it.
+     */
+    private static final class SharedGroup {
+        private final BigInteger modulus;
+        private final BigInteger base;
+        private DiffieHellmanGroup group;
+
+        private SharedGroup(BigInteger modulus, BigInteger base) {
+            this.modulus = modulus;
+            this.base = base;
+        }
+
+        private synchronized DiffieHellmanGroup get() {
+            if (group == null) {
+                group = new DiffieHellmanGroup(modulus, base, DEFAULT_WINDOW_BITS);
+            }
+            return group;
+        }
+    }
+}
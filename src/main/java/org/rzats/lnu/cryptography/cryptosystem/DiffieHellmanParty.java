@@ -1,34 +1,51 @@
 package org.rzats.lnu.cryptography.cryptosystem;
 
+import java.math.BigInteger;
+
 /**
- * A party of the Diffie-Hellman Key Exchange that communicates over privateKey public network.
+ * A party of the Diffie-Hellman Key Exchange that communicates over a public network.
  * <p>
- * {@code long} values used here because of overflow bugs, even on small examples.
+ * {@code BigInteger} values are used, as even small examples overflow {@code long} exponentiation.
+ * Parties with the same parameters share a {@link DiffieHellmanGroup}, and with it its' precomputed table.
  */
 public class DiffieHellmanParty {
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+
     /**
-     * An algorithm parameter shared between two parties.
+     * The algorithm parameters shared between the parties.
      */
-    private long modulus;
+    private final DiffieHellmanGroup group;
 
     /**
-     * An algorithm parameter shared between two parties.
+     * A private key known only to this party.
      */
-    private long base;
+    private BigInteger privateKey;
 
     /**
-     * A private key known only to this party.
+     * This party's public key, or null until it's first needed.
      */
-    private long privateKey;
+    private BigInteger publicKey;
 
     /**
      * A secret shared between two parties.
      */
-    private long sharedSecret;
+    private BigInteger sharedSecret;
 
     public DiffieHellmanParty(long modulus, long base) {
-        this.modulus = modulus;
-        this.base = base;
+        this(DiffieHellmanGroup.of(BigInteger.valueOf(modulus), BigInteger.valueOf(base)));
+    }
+
+    /**
+     * Creates a party with a random private key, whose public key the other party will accept.
+     *
+     * @param group The algorithm parameters shared between the parties.
+     */
+    public DiffieHellmanParty(DiffieHellmanGroup group) {
+        this.group = group;
+        do {
+            this.privateKey = group.generatePrivateKey();
+            this.publicKey = group.exponentiate(privateKey);
+        } while (!isValidPublicKey(publicKey));
     }
 
     /**
@@ -37,7 +54,27 @@ public class DiffieHellmanParty {
      * @param privateKey The value to set privateKey to.
      */
     public void setPrivateKey(long privateKey) {
+        setPrivateKey(BigInteger.valueOf(privateKey));
+    }
+
+    /**
+     * FOR DEMONSTRATION PURPOSES ONLY - a party should choose (or randomly generate) its' own key.
+     *
+     * @param privateKey The value to set privateKey to.
+     */
+    public void setPrivateKey(BigInteger privateKey) {
         this.privateKey = privateKey;
+        this.publicKey = null;
+    }
+
+    /**
+     * @return base^privateKey (mod modulus), computed with the group's fixed-base table.
+     */
+    public BigInteger getPublicKey() {
+        if (publicKey == null) {
+            publicKey = group.exponentiate(privateKey);
+        }
+        return publicKey;
     }
 
     /**
@@ -46,7 +83,7 @@ public class DiffieHellmanParty {
      * @param other The party to send the public key to.
      */
     public void sendPublicKey(DiffieHellmanParty other) {
-        other.receivePublicKey((long) Math.pow((double) base, (double) privateKey) % modulus);
+        other.receivePublicKey(getPublicKey());
     }
 
     /**
@@ -55,15 +92,44 @@ public class DiffieHellmanParty {
      * @param publicKey The other party's public key.
      */
     public void receivePublicKey(long publicKey) {
-        this.sharedSecret = (long) Math.pow((double) publicKey, (double) privateKey) % modulus;
+        receivePublicKey(BigInteger.valueOf(publicKey));
+    }
+
+    /**
+     * Receive a public key from the other party and calculate the shared secret.
+     *
+     * @param publicKey The other party's public key.
+     */
+    public void receivePublicKey(BigInteger publicKey) {
+        if (!isValidPublicKey(publicKey)) {
+            throw new IllegalArgumentException("The public key must be in the range [2, modulus - 2]!");
+        }
+        this.sharedSecret = group.exponentiate(publicKey, privateKey);
+    }
+
+    /**
+     * Public keys of 0, 1 and modulus - 1 would force the shared secret into {0, 1, modulus - 1},
+     * whatever this party's private key.
+     */
+    private boolean isValidPublicKey(BigInteger publicKey) {
+        return publicKey.compareTo(TWO) >= 0 && publicKey.compareTo(group.getModulus().subtract(TWO)) <= 0;
     }
 
     /**
      * FOR DEMONSTRATION PURPOSES ONLY - the secret key should obviously be kept secret.
      *
-     * @return
+     * @return The shared secret.
      */
     public long getSecret() {
-        return this.sharedSecret;
+        return getSharedSecret().longValue();
+    }
+
+    /**
+     * FOR DEMONSTRATION PURPOSES ONLY - the secret key should obviously be kept secret.
+     *
+     * @return The shared secret.
+     */
+    public BigInteger getSharedSecret() {
+        return sharedSecret;
     }
 }
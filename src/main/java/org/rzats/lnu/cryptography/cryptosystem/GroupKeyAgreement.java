@@ -0,0 +1,225 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.stream.IntStream;
+
+/**
+ * A tree-based group Diffie-Hellman key agreement (TGDH) between any amount of parties.
+ * <p>
+ * The members are the leaves of a binary tree. Every inner node v with two children l and r has the secret key
+ * k(v) = g^(k(l) * k(r)) = bk(l)^k(r) = bk(r)^k(l), where bk(x) = g^k(x) is the public blinded key of a node,
+ * so each side can compute it from its' own secret and the other side's blinded key.
+ * A node with a single child inherits its' keys. The key of the root is the group secret.
+ * <p>
+ * The whole tree is built in O(log N) rounds with the nodes of every level computed in parallel,
+ * and a join or a leave only recomputes the O(log N) nodes on a single path.
+ * FOR DEMONSTRATION PURPOSES ONLY - like {@link DiffieHellmanParty}, every member is simulated in this process.
+ */
+public class GroupKeyAgreement {
+    private final DiffieHellmanGroup group;
+
+    /**
+     * The amount of leaves - a power of two. Node 1 is the root, nodes 2i and 2i+1 are the children of node i,
+     * and nodes [capacity, 2 * capacity) are the leaves, so member m is node capacity + m.
+     */
+    private int capacity;
+    /**
+     * The secret key of every node, or null for an empty subtree.
+     */
+    private BigInteger[] keys;
+    /**
+     * The blinded key of every node, or null for an empty subtree.
+     */
+    private BigInteger[] blindedKeys;
+    /**
+     * The members that left, whose leaves are reused first.
+     */
+    private final Deque<Integer> freeMembers = new ArrayDeque<>();
+    private int size;
+
+    /**
+     * @param group   The algorithm parameters shared between the parties.
+     * @param members The initial amount of members.
+     */
+    public GroupKeyAgreement(DiffieHellmanGroup group, int members) {
+        if (members < 1) {
+            throw new IllegalArgumentException("A group needs at least one member!");
+        }
+
+        this.group = group;
+        this.capacity = Integer.highestOneBit(Math.max(members * 2 - 1, 1));
+        this.keys = new BigInteger[2 * capacity];
+        this.blindedKeys = new BigInteger[2 * capacity];
+        this.size = members;
+
+        IntStream.range(0, members).parallel().forEach(m -> refreshLeaf(capacity + m));
+        for (int m = members; m < capacity; m++) {
+            freeMembers.add(m);
+        }
+
+        // Level by level, from the parents of the leaves up to the root.
+        for (int level = capacity / 2; level >= 1; level /= 2) {
+            IntStream.range(level, 2 * level).parallel().forEach(this::computeNode);
+        }
+    }
+
+    /**
+     * Adds a member to the group, recomputing the keys on its' path to the root.
+     *
+     * @return The new member's index.
+     */
+    public int join() {
+        if (freeMembers.isEmpty()) {
+            grow();
+        }
+
+        int member = freeMembers.pollFirst();
+        refreshLeaf(capacity + member);
+        size++;
+        updatePath(capacity + member);
+        return member;
+    }
+
+    /**
+     * Removes a member from the group.
+     * <p>
+     * A sponsor - the first remaining member in the sibling subtree - refreshes its' key, so that neither
+     * the removed member nor anyone else can reuse the keys it knew.
+     *
+     * @param member The member's index.
+     */
+    public void leave(int member) {
+        int leaf = capacity + member;
+        if (member < 0 || member >= capacity || keys[leaf] == null) {
+            throw new IllegalArgumentException("Not a member of the group: " + member);
+        }
+        if (size == 1) {
+            throw new IllegalStateException("The last member can not leave the group");
+        }
+
+        freeMembers.addFirst(member);
+        size--;
+
+        // The member was the only one in the subtree below the closest ancestor with a non-empty sibling subtree,
+        // which holds the sponsor.
+        int node = leaf;
+        keys[node] = null;
+        blindedKeys[node] = null;
+        while (keys[node ^ 1] == null) {
+            node /= 2;
+            keys[node] = null;
+            blindedKeys[node] = null;
+        }
+        int sponsor = node ^ 1;
+        while (sponsor < capacity) {
+            sponsor = keys[2 * sponsor] != null ? 2 * sponsor : 2 * sponsor + 1;
+        }
+
+        refreshLeaf(sponsor);
+        updatePath(sponsor);
+    }
+
+    /**
+     * FOR DEMONSTRATION PURPOSES ONLY - the secret key should obviously be kept secret.
+     *
+     * @return The group secret.
+     */
+    public BigInteger getGroupSecret() {
+        return keys[1];
+    }
+
+    /**
+     * @param member The member's index.
+     * @return The member's public blinded key.
+     */
+    public BigInteger getBlindedKey(int member) {
+        return blindedKeys[capacity + member];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives a leaf a new random private key.
+     */
+    private void refreshLeaf(int leaf) {
+        keys[leaf] = group.generatePrivateKey();
+        blindedKeys[leaf] = group.exponentiate(keys[leaf]);
+    }
+
+    /**
+     * Recomputes the ancestors of a node.
+     */
+    private void updatePath(int node) {
+        for (node /= 2; node >= 1; node /= 2) {
+            computeNode(node);
+        }
+    }
+
+    /**
+     * Computes the keys of an inner node from its' children.
+     */
+    private void computeNode(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+
+        if (keys[left] == null || keys[right] == null) {
+            int child = keys[left] != null ? left : right;
+            keys[node] = keys[child];
+            blindedKeys[node] = blindedKeys[child];
+        } else {
+            keys[node] = group.exponentiate(blindedKeys[left], keys[right]);
+            // Nobody needs the blinded key of the root.
+            blindedKeys[node] = node == 1 ? null : group.exponentiate(keys[node]);
+        }
+    }
+
+    /**
+     * Doubles the capacity - the current tree becomes the left subtree of a new root,
+     * and the right subtree holds the new, empty leaves. No keys are recomputed.
+     */
+    private void grow() {
+        BigInteger[] grownKeys = new BigInteger[4 * capacity];
+        BigInteger[] grownBlindedKeys = new BigInteger[4 * capacity];
+        for (int levelStart = 1; levelStart <= capacity; levelStart *= 2) {
+            // Node i on a level starting at levelStart moves to i + levelStart.
+            System.arraycopy(keys, levelStart, grownKeys, 2 * levelStart, levelStart);
+            System.arraycopy(blindedKeys, levelStart, grownBlindedKeys, 2 * levelStart, levelStart);
+        }
+
+        for (int m = capacity; m < 2 * capacity; m++) {
+            freeMembers.addLast(m);
+        }
+
+        // The old root had no blinded key, and is now an ordinary inner node.
+        if (grownKeys[2] != null && grownBlindedKeys[2] == null) {
+            grownBlindedKeys[2] = group.exponentiate(grownKeys[2]);
+        }
+
+        capacity *= 2;
+        keys = grownKeys;
+        blindedKeys = grownBlindedKeys;
+    }
+
+    /**
+     * Computes the secret as a member would - from its' own private key and the blinded keys of the siblings
+     * on its' path, which it receives from the other members.
+     *
+     * @param member The member's index.
+     * @return The group secret as seen by the member.
+     */
+    public BigInteger computeGroupSecret(int member) {
+        int node = capacity + member;
+        BigInteger key = keys[node];
+        for (; node > 1; node /= 2) {
+            BigInteger sibling = blindedKeys[node ^ 1];
+            if (sibling != null) {
+                key = group.exponentiate(sibling, key);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,199 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjLongConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Encrypts and decrypts batches of independent messages with a single RSA key on a work-stealing pool.
+ * <p>
+ * Every message is a separate task, so idle workers steal the remaining messages of a batch.
+ * No thread ever blocks: a batch starts with at most {@code maxInFlight} messages, and every message that
+ * completes pulls the next one from the batch. This bounds the memory use of a batch by {@code maxInFlight}
+ * whatever its' size, even when the messages come from a large or lazy stream.
+ */
+public class RSABatchService {
+    /**
+     * The default amount of messages in flight per worker thread.
+     */
+    private static final int IN_FLIGHT_PER_THREAD = 64;
+
+    private final RSACryptosystem rsa;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    /**
+     * Creates a service running on the common fork/join pool.
+     *
+     * @param rsa The cryptosystem holding the key.
+     */
+    public RSABatchService(RSACryptosystem rsa) {
+        this(rsa, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() * IN_FLIGHT_PER_THREAD);
+    }
+
+    /**
+     * @param rsa         The cryptosystem holding the key.
+     * @param pool        The pool to run the exponentiations on.
+     * @param maxInFlight The maximum amount of messages of a batch queued or running at a time.
+     */
+    public RSABatchService(RSACryptosystem rsa, ForkJoinPool pool, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one message must be allowed in flight!");
+        }
+
+        this.rsa = rsa;
+        this.pool = pool;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Encrypts every message of a stream, without blocking the caller.
+     *
+     * @param messages    The messages, consumed in encounter order as earlier messages complete.
+     * @param ciphertexts Receives each ciphertext with the index of its' message, on a pool thread.
+     * @return A future completed once every ciphertext has been received,
+     * or exceptionally with the first failure (after which no more messages are started).
+     */
+    public CompletableFuture<Void> encrypt(Stream<byte[]> messages, ObjLongConsumer<byte[]> ciphertexts) {
+        return new Batch(messages.iterator(), rsa::encrypt, ciphertexts).start();
+    }
+
+    /**
+     * Decrypts every ciphertext of a stream, without blocking the caller.
+     *
+     * @param ciphertexts The ciphertexts, consumed in encounter order as earlier ciphertexts complete.
+     * @param plaintexts  Receives each plaintext with the index of its' ciphertext, on a pool thread.
+     * @return A future completed once every plaintext has been received,
+     * or exceptionally with the first failure (after which no more ciphertexts are started).
+     */
+    public CompletableFuture<Void> decrypt(Stream<byte[]> ciphertexts, ObjLongConsumer<byte[]> plaintexts) {
+        return new Batch(ciphertexts.iterator(), rsa::decrypt, plaintexts).start();
+    }
+
+    /**
+     * Encrypts a batch of messages.
+     *
+     * @param messages The messages.
+     * @return A future of the ciphertexts, in the order of the messages.
+     */
+    public CompletableFuture<List<byte[]>> encryptAll(Collection<byte[]> messages) {
+        byte[][] ciphertexts = new byte[messages.size()][];
+        return encrypt(messages.stream(), (ciphertext, i) -> ciphertexts[(int) i] = ciphertext)
+            .thenApply(ignored -> Arrays.asList(ciphertexts));
+    }
+
+    /**
+     * Decrypts a batch of ciphertexts.
+     *
+     * @param ciphertexts The ciphertexts.
+     * @return A future of the plaintexts, in the order of the ciphertexts.
+     */
+    public CompletableFuture<List<byte[]>> decryptAll(Collection<byte[]> ciphertexts) {
+        byte[][] plaintexts = new byte[ciphertexts.size()][];
+        return decrypt(ciphertexts.stream(), (plaintext, i) -> plaintexts[(int) i] = plaintext)
+            .thenApply(ignored -> Arrays.asList(plaintexts));
+    }
+
+    /**
+     * The progress of a single batch. The inputs are only pulled while holding the batch's lock.
+     */
+    private final class Batch {
+        private final Iterator<byte[]> inputs;
+        private final UnaryOperator<byte[]> operation;
+        private final ObjLongConsumer<byte[]> results;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        /**
+         * The index of the next input.
+         */
+        private long next;
+        /**
+         * The amount of inputs queued or running.
+         */
+        private int running;
+        /**
+         * Whether no more inputs will be started.
+         */
+        private boolean exhausted;
+
+        private Batch(Iterator<byte[]> inputs, UnaryOperator<byte[]> operation, ObjLongConsumer<byte[]> results) {
+            this.inputs = inputs;
+            this.operation = operation;
+            this.results = results;
+        }
+
+        private CompletableFuture<Void> start() {
+            try {
+                pool.execute(this::fill);
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+            return done;
+        }
+
+        /**
+         * Starts inputs until the batch is full or there are no more inputs,
+         * and completes the batch once the last input is done.
+         */
+        private void fill() {
+            while (true) {
+                byte[] input;
+                long index;
+                synchronized (this) {
+                    try {
+                        // Check for room first, as the iterator of a stream pulls the next input to answer hasNext.
+                        if (running == maxInFlight) {
+                            return;
+                        }
+                        if (!exhausted && (done.isDone() || !inputs.hasNext())) {
+                            exhausted = true;
+                        }
+                        if (exhausted) {
+                            if (running == 0) {
+                                done.complete(null);
+                            }
+                            return;
+                        }
+
+                        input = inputs.next();
+                    } catch (RuntimeException e) {
+                        // A lazy stream failed to produce the next input.
+                        exhausted = true;
+                        done.completeExceptionally(e);
+                        continue;
+                    }
+                    index = next++;
+                    running++;
+                }
+
+                try {
+                    pool.execute(() -> run(input, index));
+                } catch (RuntimeException e) {
+                    done.completeExceptionally(e);
+                    finished();
+                }
+            }
+        }
+
+        private void run(byte[] input, long index) {
+            try {
+                results.accept(operation.apply(input), index);
+            } catch (Throwable e) {
+                // Report anything, so that a batch never waits for an input that failed.
+                done.completeExceptionally(e);
+            }
+            finished();
+            fill();
+        }
+
+        private synchronized void finished() {
+            running--;
+        }
+    }
+}
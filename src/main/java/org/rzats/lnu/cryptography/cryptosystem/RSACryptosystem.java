@@ -1,42 +1,113 @@
 package org.rzats.lnu.cryptography.cryptosystem;
 
+import org.rzats.lnu.cryptography.common.KeyMaterialGenerator;
 import org.rzats.lnu.cryptography.common.MathUtilities;
 
+import java.math.BigInteger;
+import java.security.SecureRandom;
 import java.util.Arrays;
 
 /**
  * A public-key cryptosystem used for symmetric cryptography.
+ * <p>
+ * Decryption uses the Chinese Remainder Theorem: instead of one exponentiation modulo n,
+ * two exponentiations with half-sized exponents are done modulo p and q and then recombined,
+ * which is roughly 3-4 times faster.
+ * <p>
+ * Arbitrary bytes are encrypted by packing as many of them as fit below the modulus into each block.
+ * Every block is padded as in PKCS #1 v1.5 (0x00 0x02, at least 8 random non-zero bytes, 0x00, the data),
+ * so the padding also frames the length of the data in the block.
  */
 public class RSACryptosystem {
+    /**
+     * The amount of padding bytes in every block.
+     */
+    public static final int BLOCK_OVERHEAD = 11;
+    /**
+     * The minimum amount of random padding bytes.
+     */
+    private static final int MIN_PADDING_LENGTH = 8;
+
     /**
      * A product of two distinct prime numbers (p*q).
      */
-    private int modulus;
+    private final BigInteger modulus;
     /**
      * The public key exponent.
      */
-    private int publicKey;
+    private final BigInteger publicKey;
     /**
      * The private key exponent.
      */
-    private int privateKey;
+    private final BigInteger privateKey;
+    /**
+     * The first prime factor of the modulus.
+     */
+    private final BigInteger p;
+    /**
+     * The second prime factor of the modulus.
+     */
+    private final BigInteger q;
+    /**
+     * The private key exponent reduced modulo p-1.
+     */
+    private final BigInteger dP;
+    /**
+     * The private key exponent reduced modulo q-1.
+     */
+    private final BigInteger dQ;
+    /**
+     * The inverse of q modulo p.
+     */
+    private final BigInteger qInv;
 
     public RSACryptosystem(int p, int q, int publicKey) {
+        this(BigInteger.valueOf(p), BigInteger.valueOf(q), BigInteger.valueOf(publicKey));
+    }
+
+    public RSACryptosystem(BigInteger p, BigInteger q, BigInteger publicKey) {
+        if (p.equals(q)) {
+            throw new IllegalArgumentException("The prime factors must be distinct!");
+        }
+
         // Compute n = p*q.
-        this.modulus = p * q;
+        this.modulus = p.multiply(q);
 
         // Compute the public key.
         this.publicKey = publicKey;
 
         // Compute Euler's totient function.
-        int phi = (p - 1) * (q - 1);
+        BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
 
         // Determine the private key.
-        this.privateKey = MathUtilities.modularMultiplicativeInverse(publicKey, phi);
+        if (!publicKey.gcd(phi).equals(BigInteger.ONE)) {
+            throw new IllegalArgumentException("The public key must be co-prime to (p-1)*(q-1)!");
+        }
+        this.privateKey = publicKey.modInverse(phi);
+
+        // Precompute the CRT parameters.
+        this.p = p;
+        this.q = q;
+        this.dP = reduceExponent(privateKey, p);
+        this.dQ = reduceExponent(privateKey, q);
+        this.qInv = q.modInverse(p);
+    }
+
+    public BigInteger getModulus() {
+        return modulus;
+    }
+
+    public BigInteger getPublicKey() {
+        return publicKey;
     }
 
     public int encrypt(int plaintext) {
-        return MathUtilities.modularExponentiation(plaintext, this.publicKey, this.modulus);
+        return encrypt(BigInteger.valueOf(plaintext)).intValue();
+    }
+
+    public BigInteger encrypt(BigInteger plaintext) {
+        checkRange(plaintext);
+        return MathUtilities.modularExponentiation(plaintext, publicKey, modulus);
     }
 
     public String encrypt(String plaintext) {
@@ -47,8 +118,123 @@ public class RSACryptosystem {
         return reverseHash(hashedPlaintext);
     }
 
+    /**
+     * Encrypts arbitrary bytes, packing up to {@link #getBlockCapacity()} of them into every block.
+     *
+     * @param plaintext The bytes to encrypt.
+     * @return The concatenated ciphertext blocks, {@link #getBlockSize()} bytes each.
+     */
+    public byte[] encrypt(byte[] plaintext) {
+        int capacity = getBlockCapacity();
+        int blockSize = getBlockSize();
+        int blocks = (plaintext.length + capacity - 1) / capacity;
+        SecureRandom random = KeyMaterialGenerator.secureRandom();
+
+        byte[] ciphertext = new byte[blocks * blockSize];
+        byte[] block = new byte[blockSize];
+        for (int i = 0; i < blocks; i++) {
+            int offset = i * capacity;
+            int length = Math.min(capacity, plaintext.length - offset);
+            int paddingEnd = blockSize - length - 1;
+
+            // 0x00 0x02 PS 0x00 M, where PS consists of non-zero random bytes.
+            block[0] = 0;
+            block[1] = 2;
+            for (int j = 2; j < paddingEnd; j++) {
+                byte b;
+                do {
+                    b = (byte) random.nextInt(256);
+                } while (b == 0);
+                block[j] = b;
+            }
+            block[paddingEnd] = 0;
+            System.arraycopy(plaintext, offset, block, paddingEnd + 1, length);
+
+            toBytes(encrypt(new BigInteger(1, block)), ciphertext, i * blockSize, blockSize);
+        }
+        return ciphertext;
+    }
+
+    /**
+     * Decrypts bytes produced by {@link #encrypt(byte[])}.
+     *
+     * @param ciphertext The concatenated ciphertext blocks.
+     * @return The original bytes.
+     */
+    public byte[] decrypt(byte[] ciphertext) {
+        int blockSize = getBlockSize();
+        if (ciphertext.length % blockSize != 0) {
+            throw new IllegalArgumentException("The ciphertext length must be a multiple of the block size!");
+        }
+
+        byte[] plaintext = new byte[ciphertext.length / blockSize * getBlockCapacity()];
+        byte[] block = new byte[blockSize];
+        int length = 0;
+        for (int offset = 0; offset < ciphertext.length; offset += blockSize) {
+            BigInteger value = new BigInteger(1, Arrays.copyOfRange(ciphertext, offset, offset + blockSize));
+            if (value.compareTo(modulus) >= 0) {
+                throw new IllegalArgumentException("Invalid ciphertext block!");
+            }
+            toBytes(decrypt(value), block, 0, blockSize);
+
+            int separator = MIN_PADDING_LENGTH + 2;
+            while (separator < blockSize && block[separator] != 0) {
+                separator++;
+            }
+            if (block[0] != 0 || block[1] != 2 || separator == blockSize) {
+                throw new IllegalArgumentException("Invalid ciphertext block!");
+            }
+            for (int j = 2; j < MIN_PADDING_LENGTH + 2; j++) {
+                if (block[j] == 0) {
+                    throw new IllegalArgumentException("Invalid ciphertext block!");
+                }
+            }
+
+            int dataLength = blockSize - separator - 1;
+            System.arraycopy(block, separator + 1, plaintext, length, dataLength);
+            length += dataLength;
+        }
+        return length == plaintext.length ? plaintext : Arrays.copyOf(plaintext, length);
+    }
+
+    /**
+     * @return The size of a ciphertext block in bytes, i.e. the byte length of the modulus.
+     */
+    public int getBlockSize() {
+        return (modulus.bitLength() + 7) / 8;
+    }
+
+    /**
+     * @return The amount of plaintext bytes packed into a single block.
+     */
+    public int getBlockCapacity() {
+        int capacity = getBlockSize() - BLOCK_OVERHEAD;
+        if (capacity <= 0) {
+            throw new IllegalStateException("The modulus is too small to encrypt bytes");
+        }
+        return capacity;
+    }
+
     public int decrypt(int ciphertext) {
-        return MathUtilities.modularExponentiation(ciphertext, this.privateKey, this.modulus);
+        return decrypt(BigInteger.valueOf(ciphertext)).intValue();
+    }
+
+    /**
+     * Decrypts a value using the Chinese Remainder Theorem (Garner's formula).
+     *
+     * @param ciphertext A value in the range [0, n).
+     * @return ciphertext^d (mod n)
+     */
+    public BigInteger decrypt(BigInteger ciphertext) {
+        checkRange(ciphertext);
+
+        // m1 = c^dP (mod p), m2 = c^dQ (mod q).
+        BigInteger m1 = MathUtilities.modularExponentiation(ciphertext, dP, p);
+        BigInteger m2 = MathUtilities.modularExponentiation(ciphertext, dQ, q);
+
+        // h = qInv * (m1 - m2) (mod p), m = m2 + h*q.
+        BigInteger h = qInv.multiply(m1.subtract(m2)).mod(p);
+        return m2.add(h.multiply(q));
     }
 
     public String decrypt(String ciphertext) {
@@ -59,6 +245,38 @@ public class RSACryptosystem {
         return reverseHash(decryptedCiphertext);
     }
 
+    /**
+     * Reduces an exponent modulo prime-1 for use with the Chinese Remainder Theorem.
+     * <p>
+     * A zero result (only possible for the prime 2) is replaced with prime-1, as 0^0 would yield 1 instead of 0.
+     *
+     * @param exponent The exponent.
+     * @param prime    The prime modulus.
+     * @return An exponent equivalent to {@code exponent} modulo {@code prime}.
+     */
+    private static BigInteger reduceExponent(BigInteger exponent, BigInteger prime) {
+        BigInteger order = prime.subtract(BigInteger.ONE);
+        BigInteger reduced = exponent.mod(order);
+        return reduced.signum() == 0 ? order : reduced;
+    }
+
+    /**
+     * Writes a non-negative value as a fixed-length big-endian number.
+     */
+    private static void toBytes(BigInteger value, byte[] destination, int offset, int length) {
+        byte[] bytes = value.toByteArray();
+        // toByteArray() may add a leading sign byte or produce fewer bytes than the fixed length.
+        int copied = Math.min(bytes.length, length);
+        Arrays.fill(destination, offset, offset + length - copied, (byte) 0);
+        System.arraycopy(bytes, bytes.length - copied, destination, offset + length - copied, copied);
+    }
+
+    private void checkRange(BigInteger value) {
+        if (value.signum() < 0 || value.compareTo(modulus) >= 0) {
+            throw new IllegalArgumentException("The value must be in the range [0, n)!");
+        }
+    }
+
     private int[] hash(String text) {
         char[] cArray = text.toCharArray();
         int[] hash = new int[text.length()];
@@ -0,0 +1,276 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.rzats.lnu.cryptography.common.KeyMaterialGenerator;
+import org.rzats.lnu.cryptography.common.MathUtilities;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Generates RSA key pairs.
+ * <p>
+ * Every worker thread picks a random odd starting point and sieves the following interval
+ * against a table of small primes, so that only candidates without small factors reach the Miller-Rabin test.
+ * The workers search for both primes at the same time and all of them stop as soon as two primes are found.
+ */
+public class RSAKeyGenerator {
+    /**
+     * The most common public key exponent (2^16 + 1).
+     */
+    public static final BigInteger DEFAULT_PUBLIC_KEY = BigInteger.valueOf(65537);
+
+    /**
+     * The smallest supported key size - the primes must be larger than every sieving prime.
+     */
+    private static final int MIN_KEY_BITS = 64;
+    /**
+     * The bound of the small primes used for sieving.
+     */
+    static final int SIEVE_LIMIT = 1 << 14;
+    /**
+     * The amount of odd candidates sieved at a time.
+     */
+    static final int SIEVE_INTERVAL = 1 << 12;
+    /**
+     * The odd primes below {@link #SIEVE_LIMIT}.
+     */
+    private static final int[] SMALL_PRIMES = smallPrimes(SIEVE_LIMIT);
+
+    private final int bits;
+    private final BigInteger publicKey;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a generator using the default public key and the common fork/join pool.
+     *
+     * @param bits The size of the modulus in bits.
+     */
+    public RSAKeyGenerator(int bits) {
+        this(bits, DEFAULT_PUBLIC_KEY, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param bits      The size of the modulus in bits.
+     * @param publicKey The public key exponent (odd, greater than 1).
+     * @param pool      The pool to search for primes on.
+     */
+    public RSAKeyGenerator(int bits, BigInteger publicKey, ForkJoinPool pool) {
+        if (bits < MIN_KEY_BITS) {
+            throw new IllegalArgumentException("The key must be at least " + MIN_KEY_BITS + " bits long!");
+        }
+        if (publicKey.compareTo(BigInteger.ONE) <= 0 || !publicKey.testBit(0)) {
+            throw new IllegalArgumentException("The public key must be an odd number greater than 1!");
+        }
+
+        this.bits = bits;
+        this.publicKey = publicKey;
+        this.pool = pool;
+    }
+
+    /**
+     * Generates a key pair.
+     *
+     * @return A cryptosystem holding a new key pair with a modulus of exactly {@code bits} bits.
+     */
+    public RSACryptosystem generate() {
+        BigInteger[] primes = generatePrimes();
+        return new RSACryptosystem(primes[0], primes[1], publicKey);
+    }
+
+    /**
+     * Searches for the two distinct primes of a key pair.
+     *
+     * @return The primes p and q, such that p * q has exactly {@code bits} bits
+     * and neither p - 1 nor q - 1 shares a factor with the public key.
+     */
+    BigInteger[] generatePrimes() {
+        // Both primes have their two top bits set, so their product has exactly bits bits.
+        PrimeSearch search = new PrimeSearch((bits + 1) / 2, bits / 2);
+
+        int workers = Math.max(2, pool.getParallelism());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            // Half of the workers start with the first prime, the other half with the second one.
+            boolean first = i % 2 == 0;
+            tasks.add(pool.submit(() -> search.run(first)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        return new BigInteger[]{search.p, search.q};
+    }
+
+    /**
+     * Tests whether a number is probably prime with the Miller-Rabin test.
+     *
+     * @param n      An odd number greater than 3.
+     * @param rounds The amount of random bases to test.
+     * @param random The source of the bases.
+     * @param done   A flag to abandon the test early on, in which case the result is {@code false}.
+     * @return Whether n is probably prime.
+     */
+    static boolean millerRabin(BigInteger n, int rounds, Random random, AtomicBoolean done) {
+        // n - 1 = d * 2^s, where d is odd.
+        BigInteger nMinusOne = n.subtract(BigInteger.ONE);
+        int s = nMinusOne.getLowestSetBit();
+        BigInteger d = nMinusOne.shiftRight(s);
+
+        for (int round = 0; round < rounds; round++) {
+            if (done.get()) {
+                return false;
+            }
+
+            // A base in the range [2, n - 2].
+            BigInteger a;
+            do {
+                a = new BigInteger(n.bitLength(), random);
+            } while (a.compareTo(BigInteger.ONE) <= 0 || a.compareTo(nMinusOne) >= 0);
+
+            BigInteger x = MathUtilities.modularExponentiation(a, d, n);
+            if (x.equals(BigInteger.ONE) || x.equals(nMinusOne)) {
+                continue;
+            }
+
+            boolean witness = true;
+            for (int i = 1; i < s && witness; i++) {
+                x = x.multiply(x).mod(n);
+                witness = !x.equals(nMinusOne);
+            }
+            if (witness) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The amount of Miller-Rabin rounds for random candidates of a given size,
+     * giving an error probability below 2^-100 (FIPS 186-4, table C.2).
+     *
+     * @param bits The size of the candidates in bits.
+     * @return The amount of rounds.
+     */
+    static int millerRabinRounds(int bits) {
+        if (bits >= 1536) {
+            return 4;
+        }
+        if (bits >= 1024) {
+            return 5;
+        }
+        if (bits >= 512) {
+            return 7;
+        }
+        return 40;
+    }
+
+    /**
+     * Marks the odd candidates following a starting point that have a small prime factor.
+     *
+     * @param start An odd number larger than every sieving prime.
+     * @param sieve The sieve to fill, where bit i stands for start + 2i and is set if a small prime divides it.
+     */
+    static void sieve(BigInteger start, BitSet sieve) {
+        sieve.clear();
+        for (int prime : SMALL_PRIMES) {
+            int residue = start.mod(BigInteger.valueOf(prime)).intValue();
+            // The first i such that residue + 2i = 0 (mod prime), as 2^-1 = (prime + 1) / 2.
+            int i = (int) ((long) (prime - residue) % prime * ((prime + 1) / 2) % prime);
+            for (; i < SIEVE_INTERVAL; i += prime) {
+                sieve.set(i);
+            }
+        }
+    }
+
+    private static int[] smallPrimes(int limit) {
+        BitSet composite = new BitSet(limit);
+        List<Integer> primes = new ArrayList<>();
+        for (int i = 3; i < limit; i += 2) {
+            if (!composite.get(i)) {
+                primes.add(i);
+                for (long j = (long) i * i; j < limit; j += 2 * i) {
+                    composite.set((int) j);
+                }
+            }
+        }
+        return primes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The state shared between the workers looking for the two primes of a single key pair.
+     */
+    private final class PrimeSearch {
+        private final int pBits;
+        private final int qBits;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private BigInteger p;
+        private BigInteger q;
+
+        private PrimeSearch(int pBits, int qBits) {
+            this.pBits = pBits;
+            this.qBits = qBits;
+        }
+
+        /**
+         * Searches until both primes are found, switching to the other prime once the preferred one is known.
+         *
+         * @param first Whether to look for p (rather than q) first.
+         */
+        private void run(boolean first) {
+            Random random = KeyMaterialGenerator.secureRandom();
+            BitSet sieve = new BitSet(SIEVE_INTERVAL);
+
+            while (!done.get()) {
+                boolean searchingP = target(first);
+                int primeBits = searchingP ? pBits : qBits;
+
+                // A random odd start with the two top bits set.
+                BigInteger start = new BigInteger(primeBits, random)
+                    .setBit(primeBits - 1).setBit(primeBits - 2).setBit(0);
+
+                sieve(start, sieve);
+
+                int rounds = millerRabinRounds(primeBits);
+                for (int i = sieve.nextClearBit(0); i < SIEVE_INTERVAL && !done.get(); i = sieve.nextClearBit(i + 1)) {
+                    BigInteger candidate = start.add(BigInteger.valueOf(2L * i));
+                    if (candidate.bitLength() != primeBits
+                        || !candidate.subtract(BigInteger.ONE).gcd(publicKey).equals(BigInteger.ONE)) {
+                        continue;
+                    }
+                    if (millerRabin(candidate, rounds, random, done)) {
+                        offer(candidate, searchingP);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param first Whether p is the preferred prime.
+         * @return Whether to look for p (rather than q).
+         */
+        private synchronized boolean target(boolean first) {
+            return first ? p == null : q != null;
+        }
+
+        /**
+         * Records a prime found by a worker, stopping the search once both primes are known.
+         */
+        private synchronized void offer(BigInteger prime, boolean isP) {
+            if (isP && p == null && !prime.equals(q)) {
+                p = prime;
+            } else if (!isP && q == null && !prime.equals(p)) {
+                q = prime;
+            }
+            if (p != null && q != null) {
+                done.set(true);
+            }
+        }
+    }
+}
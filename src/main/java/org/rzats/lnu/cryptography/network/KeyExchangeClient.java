@@ -0,0 +1,259 @@
+package org.rzats.lnu.cryptography.network;
+
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanParty;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking Diffie-Hellman key exchange client, running many handshakes at once from a single selector thread.
+ * <p>
+ * Like {@link KeyExchangeServer}, it reuses direct buffers between connections and computes the secrets on an executor.
+ */
+public class KeyExchangeClient {
+    /**
+     * The default time limit of a batch of handshakes.
+     */
+    private static final long DEFAULT_TIMEOUT_MILLIS = 60_000;
+
+    private final DiffieHellmanGroup group;
+    private final InetSocketAddress server;
+    private final Executor executor;
+    private final int keyLength;
+    private final int frameSize;
+
+    /**
+     * @param group    The algorithm parameters.
+     * @param server   The address of the server.
+     * @param executor The executor to compute the secrets on.
+     */
+    public KeyExchangeClient(DiffieHellmanGroup group, InetSocketAddress server, Executor executor) {
+        this.group = group;
+        this.server = server;
+        this.executor = executor;
+        this.keyLength = KeyExchangeProtocol.keyLength(group);
+        this.frameSize = KeyExchangeProtocol.frameSize(group);
+    }
+
+    /**
+     * Opens connections to the server all at once and performs a handshake over each of them,
+     * giving up on the handshakes still pending after a minute.
+     *
+     * @param connections The amount of concurrent connections.
+     * @param secrets     Receives the secret of every completed handshake, on an executor thread.
+     * @return The latencies of the successful handshakes in nanoseconds, sorted.
+     * @throws IOException If the selector can't be opened.
+     * @see #handshake(int, long, Consumer)
+     */
+    public long[] handshake(int connections, Consumer<BigInteger> secrets) throws IOException {
+        return handshake(connections, DEFAULT_TIMEOUT_MILLIS, secrets);
+    }
+
+    /**
+     * Opens connections to the server all at once and performs a handshake over each of them.
+     * <p>
+     * The latency of a handshake is measured from opening the connection to knowing the secret.
+     * The public keys are generated beforehand, as a client could do while idle.
+     * Handshakes still pending once the time limit passes are dropped and count as failed.
+     *
+     * @param connections   The amount of concurrent connections.
+     * @param timeoutMillis The time limit of the whole batch in milliseconds.
+     * @param secrets       Receives the secret of every completed handshake, on an executor thread.
+     * @return The latencies of the successful handshakes in nanoseconds, sorted.
+     * @throws IOException If the selector can't be opened.
+     */
+    public long[] handshake(int connections, long timeoutMillis, Consumer<BigInteger> secrets) throws IOException {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("The time limit must be positive!");
+        }
+
+        Queue<Connection> computed = new ConcurrentLinkedQueue<>();
+        Deque<ByteBuffer> buffers = new ArrayDeque<>();
+        long[] latencies = new long[connections];
+        int completed = 0;
+        int pending = 0;
+
+        DiffieHellmanParty[] parties = new DiffieHellmanParty[connections];
+        for (int i = 0; i < connections; i++) {
+            parties[i] = new DiffieHellmanParty(group);
+            parties[i].getPublicKey();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try (Selector selector = Selector.open()) {
+            for (DiffieHellmanParty party : parties) {
+                Connection connection = new Connection(party, System.nanoTime());
+                try {
+                    connection.channel = SocketChannel.open();
+                    connection.channel.configureBlocking(false);
+                    connection.key = connection.channel.register(selector, SelectionKey.OP_CONNECT, connection);
+                    pending++;
+                    if (connection.channel.connect(server)) {
+                        sendPublicKey(connection, buffers);
+                    }
+                } catch (IOException e) {
+                    if (connection.key != null) {
+                        pending--;
+                    }
+                    close(connection, buffers);
+                }
+            }
+
+            while (pending > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    // Drop the handshakes still in progress - the ones being computed just won't be counted.
+                    for (SelectionKey key : selector.keys()) {
+                        close((Connection) key.attachment(), buffers);
+                    }
+                    break;
+                }
+                selector.select(remaining);
+
+                Connection connection;
+                while ((connection = computed.poll()) != null) {
+                    pending--;
+                    if (connection.secretTime != 0) {
+                        latencies[completed++] = connection.secretTime - connection.start;
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    connection = (Connection) key.attachment();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    try {
+                        if (key.isConnectable()) {
+                            if (connection.channel.finishConnect()) {
+                                sendPublicKey(connection, buffers);
+                            }
+                        } else if (key.isWritable()) {
+                            write(connection);
+                        } else if (key.isReadable()) {
+                            if (connection.channel.read(connection.buffer) < 0) {
+                                throw new IOException("The server closed the connection early");
+                            }
+                            if (!connection.buffer.hasRemaining()) {
+                                connection.buffer.flip();
+                                compute(connection, computed, secrets, selector);
+                                close(connection, buffers);
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Also covers invalid frames and a rejected computation.
+                        close(connection, buffers);
+                        pending--;
+                    }
+                }
+            }
+        }
+
+        long[] result = Arrays.copyOf(latencies, completed);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Writes the client's public key once the connection is established.
+     */
+    private void sendPublicKey(Connection connection, Deque<ByteBuffer> buffers) throws IOException {
+        connection.buffer = buffers.isEmpty() ? ByteBuffer.allocateDirect(frameSize) : buffers.pollFirst();
+        KeyExchangeProtocol.writeFrame(connection.buffer, connection.party.getPublicKey(), keyLength);
+        connection.buffer.flip();
+        connection.key.interestOps(SelectionKey.OP_WRITE);
+        write(connection);
+    }
+
+    /**
+     * Writes the rest of the client's frame, and switches to reading the server's frame when done.
+     */
+    private static void write(Connection connection) throws IOException {
+        connection.channel.write(connection.buffer);
+        if (!connection.buffer.hasRemaining()) {
+            connection.buffer.clear();
+            connection.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Computes the secret from the server's frame on the executor, and hands the connection back to the selector.
+     */
+    private void compute(Connection connection, Queue<Connection> computed, Consumer<BigInteger> secrets,
+                         Selector selector) {
+        BigInteger serverKey = KeyExchangeProtocol.readFrame(connection.buffer, keyLength);
+        executor.execute(() -> {
+            long secretTime = 0;
+            try {
+                connection.party.receivePublicKey(serverKey);
+                secrets.accept(connection.party.getSharedSecret());
+                secretTime = System.nanoTime();
+            } catch (RuntimeException e) {
+                secretTime = 0;
+            } finally {
+                // Always hand the connection back, so that it's never left pending.
+                connection.secretTime = secretTime;
+                computed.add(connection);
+                selector.wakeup();
+            }
+        });
+    }
+
+    private static void close(Connection connection, Deque<ByteBuffer> buffers) {
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        if (connection.channel != null) {
+            try {
+                connection.channel.close();
+            } catch (IOException e) {
+                // The connection is being dropped anyway.
+            }
+        }
+        if (connection.buffer != null) {
+            connection.buffer.clear();
+            buffers.addFirst(connection.buffer);
+            connection.buffer = null;
+        }
+    }
+
+    /**
+     * The state of a single handshake.
+     */
+    private static final class Connection {
+        private final DiffieHellmanParty party;
+        private final long start;
+        private SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer buffer;
+        /**
+         * When the secret became known, or 0 if the server's key was invalid or the secret couldn't be consumed.
+         * Written by an executor thread before the connection is queued for the selector thread.
+         */
+        private long secretTime;
+
+        private Connection(DiffieHellmanParty party, long start) {
+            this.party = party;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.rzats.lnu.cryptography.network;
+
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * The binary framing of the Diffie-Hellman key exchange.
+ * <p>
+ * The client sends its' public key and the server replies with its' own, after which both sides know the secret.
+ * Each public key is sent as one frame: a 2-byte big-endian length followed by the key as an unsigned big-endian
+ * number, zero-padded to the byte length of the modulus. Every frame of a group therefore has the same size.
+ */
+public class KeyExchangeProtocol {
+    /**
+     * The size of the frame header.
+     */
+    public static final int HEADER_SIZE = Short.BYTES;
+
+    private KeyExchangeProtocol() {
+
+    }
+
+    /**
+     * @param group The algorithm parameters.
+     * @return The length of a public key in bytes.
+     */
+    public static int keyLength(DiffieHellmanGroup group) {
+        return (group.getModulus().bitLength() + 7) / 8;
+    }
+
+    /**
+     * @param group The algorithm parameters.
+     * @return The size of a frame in bytes.
+     */
+    public static int frameSize(DiffieHellmanGroup group) {
+        return HEADER_SIZE + keyLength(group);
+    }
+
+    /**
+     * Writes a public key frame.
+     *
+     * @param buffer    The buffer to write to, advancing its' position.
+     * @param publicKey The public key.
+     * @param keyLength The length of a public key in bytes.
+     */
+    public static void writeFrame(ByteBuffer buffer, BigInteger publicKey, int keyLength) {
+        byte[] bytes = publicKey.toByteArray();
+        // toByteArray() may add a leading sign byte.
+        int offset = bytes.length > keyLength ? bytes.length - keyLength : 0;
+        int length = bytes.length - offset;
+
+        buffer.putShort((short) keyLength);
+        for (int i = length; i < keyLength; i++) {
+            buffer.put((byte) 0);
+        }
+        buffer.put(bytes, offset, length);
+    }
+
+    /**
+     * Reads a public key frame.
+     *
+     * @param buffer    A buffer holding a whole frame, from its' position on.
+     * @param keyLength The length of a public key in bytes.
+     * @return The public key.
+     * @throws IllegalArgumentException If the frame has the wrong length.
+     */
+    public static BigInteger readFrame(ByteBuffer buffer, int keyLength) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length != keyLength) {
+            throw new IllegalArgumentException("Unexpected public key length: " + length);
+        }
+
+        byte[] bytes = new byte[keyLength];
+        buffer.get(bytes);
+        return new BigInteger(1, bytes);
+    }
+}
@@ -0,0 +1,338 @@
+package org.rzats.lnu.cryptography.network;
+
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanParty;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking Diffie-Hellman key exchange server.
+ * <p>
+ * A single selector thread accepts connections and moves frames (see {@link KeyExchangeProtocol}),
+ * while the exponentiations run on an executor, so no thread is ever tied to a connection.
+ * Every connection borrows a direct buffer of exactly one frame from a pool for the whole handshake -
+ * the client's key is read into it and the server's key is written from it - and returns it when closed.
+ * The server closes each connection after sending its' public key.
+ */
+public class KeyExchangeServer implements Closeable {
+    /**
+     * The maximum length of the queue of pending connections (the OS may lower it).
+     */
+    private static final int BACKLOG = 1 << 16;
+    /**
+     * How long accepting stays paused after failing (e.g. out of file descriptors),
+     * unless a connection is closed first.
+     */
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final DiffieHellmanGroup group;
+    private final int keyLength;
+    private final int frameSize;
+    private final Executor executor;
+    private final Consumer<BigInteger> secrets;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SelectionKey acceptKey;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * The connections whose reply has been computed, to be handed back to the selector thread.
+     */
+    private final Queue<Connection> computed = new ConcurrentLinkedQueue<>();
+    /**
+     * The direct buffers of closed connections (selector thread only).
+     */
+    private final Deque<ByteBuffer> buffers = new ArrayDeque<>();
+    private final AtomicLong handshakes = new AtomicLong();
+    /**
+     * When accepting resumes if it's paused, or 0 if it isn't (selector thread only).
+     */
+    private long acceptResumesAt;
+
+    /**
+     * Starts a server computing on the common fork/join pool and discarding the secrets.
+     *
+     * @param group   The algorithm parameters.
+     * @param address The address to listen on (port 0 picks a free port).
+     * @throws IOException If the address can't be bound.
+     */
+    public KeyExchangeServer(DiffieHellmanGroup group, InetSocketAddress address) throws IOException {
+        this(group, address, ForkJoinPool.commonPool(), secret -> {
+        });
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param group    The algorithm parameters.
+     * @param address  The address to listen on (port 0 picks a free port).
+     * @param executor The executor to run the exponentiations on.
+     * @param secrets  Receives the secret of every completed handshake, on an executor thread.
+     * @throws IOException If the address can't be bound.
+     */
+    public KeyExchangeServer(DiffieHellmanGroup group, InetSocketAddress address, Executor executor,
+                             Consumer<BigInteger> secrets) throws IOException {
+        this.group = group;
+        this.keyLength = KeyExchangeProtocol.keyLength(group);
+        this.frameSize = KeyExchangeProtocol.frameSize(group);
+        this.executor = executor;
+        this.secrets = secrets;
+
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, BACKLOG);
+        serverChannel.configureBlocking(false);
+        this.acceptKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        this.thread = new Thread(this::run, "key-exchange-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return The address the server listens on.
+     * @throws IOException If the server is closed.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * @return The amount of completed handshakes.
+     */
+    public long getHandshakes() {
+        return handshakes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                if (acceptResumesAt == 0) {
+                    selector.select();
+                } else {
+                    selector.select(Math.max(1, acceptResumesAt - System.currentTimeMillis()));
+                    if (System.currentTimeMillis() >= acceptResumesAt) {
+                        resumeAccepting();
+                    }
+                }
+
+                Connection connection;
+                while ((connection = computed.poll()) != null) {
+                    reply(connection);
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read((Connection) key.attachment());
+                    } else if (key.isWritable()) {
+                        write((Connection) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The key exchange server failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    close((Connection) key.attachment());
+                }
+            }
+        }
+    }
+
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                // Most likely out of file descriptors - the connection stays queued, but selecting for it again
+                // right away would spin, so wait until a connection is closed or the backoff passes.
+                acceptKey.interestOps(0);
+                acceptResumesAt = System.currentTimeMillis() + ACCEPT_BACKOFF_MILLIS;
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+
+            Connection connection = new Connection(channel, borrowBuffer());
+            try {
+                channel.configureBlocking(false);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException e) {
+                close(connection);
+            }
+        }
+    }
+
+    private void read(Connection connection) {
+        ByteBuffer buffer = connection.buffer;
+        try {
+            if (connection.channel.read(buffer) < 0) {
+                close(connection);
+                return;
+            }
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+        if (buffer.hasRemaining()) {
+            return;
+        }
+
+        // The whole frame has arrived - stop reading while the reply is computed.
+        connection.key.interestOps(0);
+        buffer.flip();
+        try {
+            executor.execute(() -> compute(connection));
+        } catch (RuntimeException e) {
+            // The executor rejected the task - drop the connection rather than the selector thread.
+            close(connection);
+        }
+    }
+
+    /**
+     * Computes the reply to a connection on an executor thread, and always hands the connection back
+     * to the selector thread - with no reply if the client's key was invalid or anything failed.
+     */
+    private void compute(Connection connection) {
+        BigInteger reply = null;
+        try {
+            BigInteger clientKey = KeyExchangeProtocol.readFrame(connection.buffer, keyLength);
+            DiffieHellmanParty party = new DiffieHellmanParty(group);
+            party.receivePublicKey(clientKey);
+            secrets.accept(party.getSharedSecret());
+            reply = party.getPublicKey();
+        } catch (RuntimeException e) {
+            reply = null;
+        } finally {
+            connection.reply = reply;
+            computed.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    private void reply(Connection connection) {
+        if (connection.reply == null || !connection.key.isValid()) {
+            close(connection);
+            return;
+        }
+
+        ByteBuffer buffer = connection.buffer;
+        buffer.clear();
+        KeyExchangeProtocol.writeFrame(buffer, connection.reply, keyLength);
+        buffer.flip();
+        connection.key.interestOps(SelectionKey.OP_WRITE);
+        write(connection);
+    }
+
+    private void write(Connection connection) {
+        try {
+            connection.channel.write(connection.buffer);
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+        if (!connection.buffer.hasRemaining()) {
+            handshakes.incrementAndGet();
+            close(connection);
+        }
+    }
+
+    private ByteBuffer borrowBuffer() {
+        ByteBuffer buffer = buffers.pollFirst();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(frameSize);
+    }
+
+    private void close(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // The connection is being dropped anyway.
+        }
+        connection.buffer.clear();
+        buffers.addFirst(connection.buffer);
+
+        // A file descriptor has been freed.
+        if (acceptResumesAt != 0) {
+            resumeAccepting();
+        }
+    }
+
+    private void resumeAccepting() {
+        acceptResumesAt = 0;
+        if (acceptKey.isValid()) {
+            acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    /**
+     * The state of a single handshake.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer;
+        private SelectionKey key;
+        /**
+         * The server's public key, or null if the client's key was invalid.
+         * Written by an executor thread before the connection is queued for the selector thread.
+         */
+        private BigInteger reply;
+        private boolean closed;
+
+        private Connection(SocketChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BlockRailFenceCipherTest {
+    private static final byte[] PLAINTEXT = "WEAREDISCOVEREDFLEEATONCE".getBytes(StandardCharsets.US_ASCII);
+    private static final int BLOCK_SIZE = 10;
+
+    private final BlockRailFenceCipher cipher = new BlockRailFenceCipher(3, BLOCK_SIZE);
+
+    private byte[] encrypt(byte[] plaintext) throws IOException {
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        cipher.encrypt(new ByteArrayInputStream(plaintext), ciphertext);
+        return ciphertext.toByteArray();
+    }
+
+    private byte[] decrypt(byte[] ciphertext) throws IOException {
+        ByteArrayOutputStream plaintext = new ByteArrayOutputStream();
+        cipher.decrypt(new ByteArrayInputStream(ciphertext), plaintext);
+        return plaintext.toByteArray();
+    }
+
+    @Test
+    public void framesEveryBlock() throws IOException {
+        byte[] ciphertext = encrypt(PLAINTEXT);
+        assertEquals(2 * cipher.frameOffset(1) + BlockRailFenceCipher.HEADER_LENGTH + 5, ciphertext.length);
+        assertEquals(BLOCK_SIZE, ByteBuffer.wrap(ciphertext).getInt(0));
+        assertEquals(5, ByteBuffer.wrap(ciphertext).getInt((int) cipher.frameOffset(2)));
+    }
+
+    @Test
+    public void streamRoundTrip() throws IOException {
+        assertArrayEquals(PLAINTEXT, decrypt(encrypt(PLAINTEXT)));
+    }
+
+    @Test
+    public void bufferRoundTrip() throws IOException {
+        ByteBuffer ciphertext = ByteBuffer.wrap(encrypt(PLAINTEXT));
+        ByteBuffer plaintext = ByteBuffer.allocate(PLAINTEXT.length);
+        cipher.decrypt(ciphertext, plaintext);
+        assertArrayEquals(PLAINTEXT, plaintext.array());
+        assertEquals(0, ciphertext.remaining());
+    }
+
+    @Test(expected = IOException.class)
+    public void streamRejectsShortBlockBeforeTheLast() throws IOException {
+        // Splice the short last frame in front of a full one.
+        byte[] tail = encrypt(Arrays.copyOf(PLAINTEXT, 5));
+        byte[] full = encrypt(Arrays.copyOf(PLAINTEXT, BLOCK_SIZE));
+        byte[] spliced = Arrays.copyOf(tail, tail.length + full.length);
+        System.arraycopy(full, 0, spliced, tail.length, full.length);
+        decrypt(spliced);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferRejectsShortBlockBeforeTheLast() throws IOException {
+        byte[] tail = encrypt(Arrays.copyOf(PLAINTEXT, 5));
+        byte[] full = encrypt(Arrays.copyOf(PLAINTEXT, BLOCK_SIZE));
+        byte[] spliced = Arrays.copyOf(tail, tail.length + full.length);
+        System.arraycopy(full, 0, spliced, tail.length, full.length);
+        cipher.decrypt(ByteBuffer.wrap(spliced), ByteBuffer.allocate(PLAINTEXT.length));
+    }
+
+    @Test(expected = EOFException.class)
+    public void streamRejectsTruncatedFrame() throws IOException {
+        byte[] ciphertext = encrypt(PLAINTEXT);
+        decrypt(Arrays.copyOf(ciphertext, ciphertext.length - 1));
+    }
+}
@@ -0,0 +1,120 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BlumBlumShubCipherTest {
+    /**
+     * A reference BBS sequence, squaring with {@code BigInteger} one step at a time.
+     */
+    private static int[] reference(BigInteger p, BigInteger q, BigInteger seed, int bitsPerStep, int length) {
+        BigInteger modulus = p.multiply(q);
+        BigInteger x = seed.multiply(seed).mod(modulus);
+        int[] bits = new int[length];
+        for (int i = 0; i < length; i += bitsPerStep) {
+            x = x.multiply(x).mod(modulus);
+            for (int b = 0; b < bitsPerStep && i + b < length; b++) {
+                bits[i + b] = x.testBit(b) ? 1 : 0;
+            }
+        }
+        return bits;
+    }
+
+    @Test
+    public void generatesKnownSequence() {
+        // x1..x5 = 81, 236, 36, 31, 202 for p = 11, q = 23, s = 3.
+        assertArrayEquals(new int[]{1, 0, 0, 1, 0}, new BlumBlumShubCipher(11, 23, 3).generateSequence(5));
+    }
+
+    @Test
+    public void longSequenceMatchesReference() {
+        // Longer than one segment, so the segments after the first one start with a jump.
+        int length = 3 * (1 << 16) + 5;
+        assertArrayEquals(reference(BigInteger.valueOf(19), BigInteger.valueOf(23), BigInteger.valueOf(233), 1, length),
+            new BlumBlumShubCipher(19, 23, 233).generateSequence(length));
+    }
+
+    @Test
+    public void bigModulusMatchesReference() {
+        Random random = new Random(42);
+        BigInteger p = blumPrime(160, random);
+        BigInteger q = blumPrime(160, random);
+        BigInteger seed = BigInteger.valueOf(1_000_003);
+        int bitsPerStep = BlumBlumShubCipher.maxBitsPerStep(p.multiply(q));
+
+        int length = (1 << 16) + 1000;
+        assertArrayEquals(reference(p, q, seed, bitsPerStep, length),
+            new BlumBlumShubCipher(p, q, seed, bitsPerStep).generateSequence(length));
+    }
+
+    @Test
+    public void packedOutputsMatchSequence() {
+        BlumBlumShubCipher cipher = new BlumBlumShubCipher(19, 23, 233);
+        int length = 2 * (1 << 16) + 64 * 3;
+        int[] sequence = cipher.generateSequence(length);
+
+        long[] words = cipher.generateBits(length);
+        byte[] bytes = cipher.generateBytes(length / Byte.SIZE);
+        for (int i = 0; i < length; i++) {
+            assertEquals(sequence[i], (int) (words[i / Long.SIZE] >>> (i % Long.SIZE)) & 1);
+            assertEquals(sequence[i], (bytes[i / Byte.SIZE] >>> (i % Byte.SIZE)) & 1);
+        }
+    }
+
+    @Test
+    public void byteArrayMatchesIntArrayAndRoundTrips() {
+        BlumBlumShubCipher cipher = new BlumBlumShubCipher(19, 23, 233);
+        byte[] message = new byte[(1 << 16) + 1001];
+        new Random(7).nextBytes(message);
+        int[] codes = new int[message.length];
+        for (int i = 0; i < message.length; i++) {
+            codes[i] = message[i] & 0xFF;
+        }
+
+        byte[] data = message.clone();
+        cipher.encrypt(data, 0, data.length);
+        int[] expected = cipher.encrypt(codes);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(expected[i], data[i] & 0xFF);
+        }
+
+        cipher.decrypt(data, 0, data.length);
+        assertArrayEquals(message, data);
+    }
+
+    @Test
+    public void keystreamSeeksAnywhere() {
+        BlumBlumShubCipher cipher = new BlumBlumShubCipher(19, 23, 233);
+        byte[] message = new byte[4096];
+        new Random(9).nextBytes(message);
+        byte[] whole = message.clone();
+        cipher.encrypt(whole, 0, whole.length);
+
+        byte[] tail = new byte[1000];
+        System.arraycopy(message, 3000, tail, 0, tail.length);
+        BlumBlumShubCipher.Keystream keystream = cipher.newEncryptor();
+        keystream.seek(3000);
+        keystream.apply(tail, 0, tail.length);
+        for (int i = 0; i < tail.length; i++) {
+            assertEquals(whole[3000 + i], tail[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSeedSharingAFactor() {
+        new BlumBlumShubCipher(19, 23, 46);
+    }
+
+    private static BigInteger blumPrime(int bits, Random random) {
+        BigInteger prime;
+        do {
+            prime = BigInteger.probablePrime(bits, random);
+        } while (!prime.testBit(1));
+        return prime;
+    }
+}
@@ -0,0 +1,147 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+import org.rzats.lnu.cryptography.common.ArrayUtilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CaesarCipherTest {
+    private static final String PLAINTEXT = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG";
+    private static final String CIPHERTEXT = "QEB NRFZH YOLTK CLU GRJMP LSBO QEB IXWV ALD";
+    private static final byte[] UTF8_TEXT = "café naïve ÿ - Quick Brown Fox".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void encryptsKnownAnswer() {
+        Cipher cipher = new CaesarCipher(23);
+        int[] ciphertext = cipher.encrypt(ArrayUtilities.toASCIIArray(PLAINTEXT));
+        assertEquals(CIPHERTEXT, ArrayUtilities.toText(ciphertext));
+        assertEquals(PLAINTEXT, ArrayUtilities.toText(cipher.decrypt(ciphertext)));
+    }
+
+    @Test
+    public void byteArrayMatchesIntArray() {
+        byte[] data = PLAINTEXT.getBytes(StandardCharsets.US_ASCII);
+        new CaesarCipher(23).encrypt(data, 0, data.length);
+        assertEquals(CIPHERTEXT, new String(data, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void byteArrayLeavesNonASCIIBytesUnchanged() {
+        byte[] data = UTF8_TEXT.clone();
+        CaesarCipher cipher = new CaesarCipher(3);
+        cipher.encrypt(data, 0, data.length);
+        for (int i = 0; i < data.length; i++) {
+            if (UTF8_TEXT[i] < 0) {
+                assertEquals(UTF8_TEXT[i], data[i]);
+            }
+        }
+        cipher.decrypt(data, 0, data.length);
+        assertArrayEquals(UTF8_TEXT, data);
+    }
+
+    @Test
+    public void latin1BytesRoundTrip() {
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        byte[] original = data.clone();
+        CaesarCipher cipher = new CaesarCipher(11);
+        cipher.encrypt(data, 0, data.length);
+        cipher.decrypt(data, 0, data.length);
+        assertArrayEquals(original, data);
+    }
+
+    @Test
+    public void byteBufferRoundTrip() {
+        CaesarCipher cipher = new CaesarCipher(5);
+        ByteBuffer plaintext = ByteBuffer.wrap(UTF8_TEXT);
+        ByteBuffer ciphertext = ByteBuffer.allocateDirect(UTF8_TEXT.length);
+        cipher.encrypt(plaintext, ciphertext);
+        ciphertext.flip();
+
+        ByteBuffer decrypted = ByteBuffer.allocate(UTF8_TEXT.length);
+        cipher.decrypt(ciphertext, decrypted);
+        assertArrayEquals(UTF8_TEXT, decrypted.array());
+    }
+
+    @Test
+    public void streamRoundTrip() throws IOException {
+        CaesarCipher cipher = new CaesarCipher(7);
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        try (OutputStream out = new CipherOutputStream(ciphertext, cipher.newEncryptor())) {
+            out.write(UTF8_TEXT);
+        }
+
+        ByteArrayOutputStream plaintext = new ByteArrayOutputStream();
+        try (InputStream in = new CipherInputStream(new ByteArrayInputStream(ciphertext.toByteArray()),
+            cipher.newDecryptor())) {
+            byte[] chunk = new byte[5];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                plaintext.write(chunk, 0, read);
+            }
+        }
+        assertArrayEquals(UTF8_TEXT, plaintext.toByteArray());
+    }
+
+    /**
+     * Checks that the int[], byte[], ByteBuffer and stream paths agree on every byte value.
+     */
+    static void assertPathsAgree(StreamingCipher cipher) throws IOException {
+        int[] message = new int[3 * 256];
+        byte[] bytes = new byte[message.length];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = i % 256;
+            bytes[i] = (byte) i;
+        }
+
+        int[] expected = cipher.encrypt(message);
+        byte[] expectedBytes = new byte[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            expectedBytes[i] = (byte) expected[i];
+        }
+        assertArrayEquals(message, cipher.decrypt(expected));
+
+        byte[] array = bytes.clone();
+        cipher.encrypt(array, 0, array.length);
+        assertArrayEquals("byte[]", expectedBytes, array);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        cipher.encrypt(ByteBuffer.wrap(bytes), buffer);
+        byte[] buffered = new byte[bytes.length];
+        ((ByteBuffer) buffer.flip()).get(buffered);
+        assertArrayEquals("ByteBuffer", expectedBytes, buffered);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        cipher.encrypt(new ByteArrayInputStream(bytes), stream);
+        assertArrayEquals("stream", expectedBytes, stream.toByteArray());
+
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        cipher.decrypt(new ByteArrayInputStream(expectedBytes), decrypted);
+        assertArrayEquals("stream decryption", bytes, decrypted.toByteArray());
+    }
+
+    @Test
+    public void everyPathAgreesOnEveryByte() throws IOException {
+        for (int shift : new int[]{0, 3, 23, -7}) {
+            assertPathsAgree(new CaesarCipher(shift));
+        }
+    }
+
+    @Test
+    public void intArrayLeavesNonASCIILettersUnchanged() {
+        String text = "caf\u00e9 \u00c9t\u00e9 \u0100";
+        int[] ciphertext = new CaesarCipher(3).encrypt(ArrayUtilities.toASCIIArray(text));
+        assertEquals("fdi\u00e9 \u00c9w\u00e9 \u0100", ArrayUtilities.toText(ciphertext));
+    }
+}
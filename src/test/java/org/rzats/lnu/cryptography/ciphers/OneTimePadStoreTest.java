@@ -0,0 +1,180 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OneTimePadStoreTest {
+    private static final byte[] UTF8_TEXT = "Ärger über café naïve ÿ - attack at dawn".getBytes(StandardCharsets.UTF_8);
+    /**
+     * Longer than a lease, so that reopening the pad still leaves some of it unused.
+     */
+    private static final int PAD_LENGTH = 3 << 20;
+
+    private Path pad;
+
+    @Before
+    public void createPad() throws IOException {
+        pad = Files.createTempFile("pad", ".bin");
+        byte[] bytes = new byte[PAD_LENGTH];
+        new Random(42).nextBytes(bytes);
+        Files.write(pad, bytes);
+    }
+
+    @After
+    public void deletePad() throws IOException {
+        Files.deleteIfExists(Paths.get(pad + ".offset"));
+        Files.delete(pad);
+    }
+
+    @Test
+    public void roundTripsInBothCombinations() throws IOException {
+        for (OneTimePadStore.Combination combination : OneTimePadStore.Combination.values()) {
+            try (OneTimePadStore store = new OneTimePadStore(pad, combination)) {
+                byte[] data = UTF8_TEXT.clone();
+                long position = store.encrypt(data, 0, data.length);
+                store.decrypt(position, data, 0, data.length);
+                assertArrayEquals(combination.toString(), UTF8_TEXT, data);
+            }
+        }
+    }
+
+    @Test
+    public void vigenereShiftsOnlyASCIILetters() throws IOException {
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.VIGENERE)) {
+            byte[] data = UTF8_TEXT.clone();
+            store.encrypt(data, 0, data.length);
+            for (int i = 0; i < data.length; i++) {
+                if (!CaesarCipher.isASCIILetter(UTF8_TEXT[i] & 0xFF)) {
+                    assertEquals(UTF8_TEXT[i], data[i]);
+                } else {
+                    assertTrue(CaesarCipher.isASCIILetter(data[i] & 0xFF));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void neverReusesThePadAfterReopening() throws IOException {
+        long first;
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.XOR)) {
+            first = store.encrypt(new byte[100], 0, 100);
+        }
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.XOR)) {
+            assertTrue(store.encrypt(new byte[100], 0, 100) >= first + 100);
+        }
+    }
+
+    @Test(expected = SecurityException.class)
+    public void refusesToRunPastThePad() throws IOException {
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.XOR)) {
+            store.encrypt(new byte[PAD_LENGTH + 1], 0, PAD_LENGTH + 1);
+        }
+    }
+
+    @Test
+    public void rejectsMessagesOutsideTheArrayWithoutReservingPad() throws IOException {
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.XOR)) {
+            long first = store.encrypt(new byte[100], 0, 100);
+            int[][] invalid = {{0, -100}, {-1, 10}, {95, 10}, {0, 101}, {Integer.MAX_VALUE, 10}};
+            for (int[] bounds : invalid) {
+                try {
+                    store.encrypt(new byte[100], bounds[0], bounds[1]);
+                    fail("Accepted offset " + bounds[0] + " and length " + bounds[1]);
+                } catch (IllegalArgumentException e) {
+                    // Expected.
+                }
+            }
+            assertEquals(PAD_LENGTH - 100, store.remaining());
+            assertEquals(first + 100, store.encrypt(new byte[100], 0, 100));
+        }
+    }
+
+    @Test
+    public void refusesAPartialOffsetFile() throws IOException {
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.XOR)) {
+            store.encrypt(new byte[100], 0, 100);
+        }
+        Files.write(Paths.get(pad + ".offset"), new byte[3]);
+        try {
+            new OneTimePadStore(pad, OneTimePadStore.Combination.XOR).close();
+            fail("Treated a partial offset file as an unused pad");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void refusesToOpenThePadTwice() throws IOException {
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.XOR)) {
+            try {
+                new OneTimePadStore(pad, OneTimePadStore.Combination.XOR).close();
+                fail("Opened the pad twice");
+            } catch (IOException e) {
+                // Expected.
+            }
+            store.encrypt(new byte[100], 0, 100);
+        }
+        // The failed attempt didn't keep the offset file locked.
+        new OneTimePadStore(pad, OneTimePadStore.Combination.XOR).close();
+    }
+
+    @Test
+    public void vigenereShiftsAreUniform() throws IOException {
+        // Every shift of 'a' should appear about as often - pad bytes 234 to 255 used to favour shifts 0 to 21.
+        int length = 1 << 20;
+        long[] counts = new long[26];
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.VIGENERE)) {
+            byte[] data = new byte[length];
+            Arrays.fill(data, (byte) 'a');
+            store.encrypt(data, 0, length);
+            for (byte b : data) {
+                counts[b - 'a']++;
+            }
+        }
+
+        double expected = length / 26.0;
+        double chiSquared = 0;
+        for (long count : counts) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        // The 99.9th percentile of the chi-squared distribution with 25 degrees of freedom.
+        assertTrue("chi-squared " + chiSquared, chiSquared < 52.62);
+    }
+
+    @Test
+    public void vigenereSkipsBiasedPadBytes() throws IOException {
+        byte[] bytes = {(byte) 255, 1, (byte) 234, (byte) 233, 0};
+        Files.write(pad, bytes);
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.VIGENERE)) {
+            byte[] data = "aa".getBytes(StandardCharsets.US_ASCII);
+            assertEquals(0, store.encrypt(data, 0, data.length));
+            // 233 = 8 * 26 + 25.
+            assertEquals("bz", new String(data, StandardCharsets.US_ASCII));
+            assertEquals(1, store.remaining());
+            store.decrypt(0, data, 0, data.length);
+            assertEquals("aa", new String(data, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test(expected = SecurityException.class)
+    public void vigenereRefusesToRunPastThePadWhenSkipping() throws IOException {
+        Files.write(pad, new byte[]{1, (byte) 250, 2});
+        try (OneTimePadStore store = new OneTimePadStore(pad, OneTimePadStore.Combination.VIGENERE)) {
+            store.encrypt(new byte[3], 0, 3);
+        }
+    }
+}
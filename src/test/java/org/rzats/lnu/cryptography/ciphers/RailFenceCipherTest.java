@@ -0,0 +1,148 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+import org.rzats.lnu.cryptography.common.ArrayUtilities;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RailFenceCipherTest {
+    private static final String PLAINTEXT = "WEAREDISCOVEREDFLEEATONCE";
+    private static final String CIPHERTEXT = "WECRLTEERDSOEEFEAOCAIVDEN";
+
+    /**
+     * The fence-building encryption the cipher used to do, marking the occupied cells explicitly
+     * rather than treating zero as an empty cell.
+     */
+    private static int[] matrixEncrypt(int fenceHeight, int[] plaintext) {
+        int[][] fence = new int[fenceHeight][plaintext.length];
+        boolean[][] occupied = new boolean[fenceHeight][plaintext.length];
+
+        int rail = 0;
+        boolean movingUp = false;
+        for (int i = 0; i < plaintext.length; i++) {
+            fence[rail][i] = plaintext[i];
+            occupied[rail][i] = true;
+
+            if (fenceHeight == 1) {
+                continue;
+            }
+            if (movingUp) {
+                if (rail == 0) {
+                    rail = 1;
+                    movingUp = false;
+                } else {
+                    rail--;
+                }
+            } else {
+                if (rail == fenceHeight - 1) {
+                    rail = fenceHeight - 2;
+                    movingUp = true;
+                } else {
+                    rail++;
+                }
+            }
+        }
+
+        int[] ciphertext = new int[plaintext.length];
+        int k = 0;
+        for (int i = 0; i < fenceHeight; i++) {
+            for (int j = 0; j < plaintext.length; j++) {
+                if (occupied[i][j]) {
+                    ciphertext[k++] = fence[i][j];
+                }
+            }
+        }
+        return ciphertext;
+    }
+
+    @Test
+    public void encryptsKnownAnswer() {
+        RailFenceCipher cipher = new RailFenceCipher(3);
+        int[] ciphertext = cipher.encrypt(ArrayUtilities.toASCIIArray(PLAINTEXT));
+        assertEquals(CIPHERTEXT, ArrayUtilities.toText(ciphertext));
+        assertEquals(PLAINTEXT, ArrayUtilities.toText(cipher.decrypt(ciphertext)));
+    }
+
+    @Test
+    public void matchesTheFenceMatrix() {
+        Random random = new Random(42);
+        for (int fenceHeight : new int[]{1, 2, 3, 4, 7, 16, 100}) {
+            for (int length : new int[]{0, 1, 2, 3, 5, 12, 13, 99, 1000}) {
+                int[] plaintext = new int[length];
+                for (int i = 0; i < length; i++) {
+                    plaintext[i] = 1 + random.nextInt(255);
+                }
+
+                RailFenceCipher cipher = new RailFenceCipher(fenceHeight);
+                int[] ciphertext = cipher.encrypt(plaintext);
+                String name = fenceHeight + " rails, " + length + " characters";
+                assertArrayEquals(name, matrixEncrypt(fenceHeight, plaintext), ciphertext);
+                assertArrayEquals(name, plaintext, cipher.decrypt(ciphertext));
+            }
+        }
+    }
+
+    @Test
+    public void keepsZeroBytes() {
+        int[] plaintext = {0, 1, 0, 2, 0, 0, 3, 0};
+        RailFenceCipher cipher = new RailFenceCipher(3);
+        int[] ciphertext = cipher.encrypt(plaintext);
+        assertArrayEquals(matrixEncrypt(3, plaintext), ciphertext);
+        assertArrayEquals(plaintext, cipher.decrypt(ciphertext));
+
+        byte[] data = new byte[64];
+        data[5] = 1;
+        data[40] = 2;
+        byte[] expected = data.clone();
+        cipher.encrypt(data, 0, data.length);
+        cipher.decrypt(data, 0, data.length);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    public void byteBufferMatchesIntArray() {
+        byte[] bytes = new byte[300];
+        new Random(42).nextBytes(bytes);
+        int[] plaintext = new int[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            plaintext[i] = bytes[i] & 0xFF;
+        }
+
+        RailFenceCipher cipher = new RailFenceCipher(5);
+        int[] expected = cipher.encrypt(plaintext);
+        ByteBuffer ciphertext = ByteBuffer.allocateDirect(bytes.length);
+        cipher.encrypt(ByteBuffer.wrap(bytes), ciphertext);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], ciphertext.get(i) & 0xFF);
+        }
+    }
+
+    @Test
+    public void fencesHigherThanTheMessageKeepItUnchanged() {
+        int[] plaintext = {5, 4, 3, 2, 1, 0, 9, 8, 7, 6};
+        for (int fenceHeight : new int[]{10, 11, (1 << 30) + 2, Integer.MAX_VALUE}) {
+            RailFenceCipher cipher = new RailFenceCipher(fenceHeight);
+            assertArrayEquals(plaintext, cipher.encrypt(plaintext));
+            assertArrayEquals(plaintext, cipher.decrypt(plaintext));
+        }
+    }
+
+    @Test
+    public void reusesCachedPermutations() {
+        RailFenceCipher cipher = new RailFenceCipher(4);
+        assertSame(cipher.permutation(1000), cipher.permutation(1000));
+        assertSame(cipher.permutation(1000), new RailFenceCipher(4).permutation(1000));
+        // Every fence at least as high as the message shares one permutation.
+        assertSame(new RailFenceCipher(1000).permutation(1000), new RailFenceCipher(5000).permutation(1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFenceWithoutRails() {
+        new RailFenceCipher(0);
+    }
+}
@@ -0,0 +1,114 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class SimplifiedDESCipherTest {
+    /**
+     * Published key, plaintext and ciphertext triples.
+     */
+    private static final int[][] KNOWN_ANSWERS = {
+        {0b0000000000, 0b00000000, 0b11110000},
+        {0b1111111111, 0b11111111, 0b00001111},
+        {0b0000011111, 0b00000000, 0b01000011},
+        {0b1010000010, 0b10010111, 0b00111000},
+        {0b1000101110, 0b00111000, 0b00011100},
+        {0b1000101110, 0b00001100, 0b11000010}
+    };
+
+    private static final int[] ROUND_TRIP_KEYS = {0b0000000000, 0b1100110001, 0b1010000010, 0b0111111101, 0b1111111111};
+
+    @Test
+    public void encryptsKnownAnswers() {
+        for (int[] answer : KNOWN_ANSWERS) {
+            SimplifiedDESCipher cipher = new SimplifiedDESCipher(answer[0]);
+            assertEquals(answer[2], cipher.encryptBlock(answer[1]));
+            assertEquals(answer[1], cipher.decryptBlock(answer[2]));
+        }
+    }
+
+    @Test
+    public void encryptsTheDemoBitArrays() {
+        Cipher cipher = new SimplifiedDESCipher(new int[]{1, 1, 0, 0, 1, 1, 0, 0, 0, 1});
+        int[] plaintext = {1, 1, 1, 1, 1, 1, 1, 1};
+        int[] ciphertext = {0, 0, 1, 1, 1, 1, 1, 0};
+
+        assertArrayEquals(ciphertext, cipher.encrypt(plaintext));
+        assertArrayEquals(plaintext, cipher.decrypt(ciphertext));
+    }
+
+    @Test
+    public void generatesKnownSubkeys() {
+        // K1 = 10100100, K2 = 01000011.
+        assertEquals(0b10100100_01000011, SimplifiedDESCipher.generateSubkeys(0b1010000010));
+    }
+
+    @Test
+    public void roundTripsEveryBlock() {
+        for (int key : ROUND_TRIP_KEYS) {
+            SimplifiedDESCipher cipher = new SimplifiedDESCipher(key);
+            boolean[] seen = new boolean[256];
+            for (int block = 0; block < 256; block++) {
+                int ciphertext = cipher.encryptBlock(block);
+                assertEquals(block, cipher.decryptBlock(ciphertext));
+
+                // Encryption is a permutation of the blocks.
+                assertFalse(seen[ciphertext]);
+                seen[ciphertext] = true;
+            }
+        }
+    }
+
+    @Test
+    public void everyPathAgrees() {
+        byte[] plaintext = new byte[256];
+        for (int i = 0; i < plaintext.length; i++) {
+            plaintext[i] = (byte) i;
+        }
+
+        for (int key : ROUND_TRIP_KEYS) {
+            SimplifiedDESCipher cipher = new SimplifiedDESCipher(key);
+
+            int subkeys = SimplifiedDESCipher.generateSubkeys(key);
+            byte[] expected = new byte[plaintext.length];
+            for (int i = 0; i < plaintext.length; i++) {
+                expected[i] = (byte) SimplifiedDESCipher.transform(i, subkeys >>> 8, subkeys & 0xFF);
+            }
+
+            byte[] data = plaintext.clone();
+            cipher.encrypt(data, 0, data.length);
+            assertArrayEquals(expected, data);
+            cipher.decrypt(data, 0, data.length);
+            assertArrayEquals(plaintext, data);
+
+            ByteBuffer ciphertext = ByteBuffer.allocateDirect(plaintext.length);
+            cipher.encrypt(ByteBuffer.wrap(plaintext), ciphertext);
+            ciphertext.flip();
+            byte[] encrypted = new byte[plaintext.length];
+            ciphertext.duplicate().get(encrypted);
+            assertArrayEquals(expected, encrypted);
+
+            ByteBuffer decrypted = ByteBuffer.allocate(plaintext.length);
+            cipher.decrypt(ciphertext, decrypted);
+            assertArrayEquals(plaintext, decrypted.array());
+        }
+    }
+
+    @Test
+    public void rejectsKeysLongerThan10Bits() {
+        for (int key : new int[]{1 << 10, -1, Integer.MIN_VALUE}) {
+            try {
+                new SimplifiedDESCipher(key);
+                fail("Accepted key " + key);
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SimplifiedDESModeCipherTest {
+    private static final SimplifiedDESCipher CIPHER = new SimplifiedDESCipher(0b1010000010);
+    private static final int IV = 0x5A;
+    /**
+     * More than one window of direct buffer processing, and not a multiple of the CTR keystream.
+     */
+    private static final int LENGTH = (1 << 20) + (1 << 16) + 77;
+
+    private static byte[] message() {
+        byte[] message = new byte[LENGTH];
+        new Random(42).nextBytes(message);
+        return message;
+    }
+
+    @Test
+    public void encryptsKnownBlock() {
+        assertEquals(0b00111000, CIPHER.encryptBlock(0b10010111));
+        assertEquals(0b10010111, CIPHER.decryptBlock(0b00111000));
+    }
+
+    @Test
+    public void matchesModeDefinitions() {
+        byte[] message = message();
+        for (BlockMode mode : BlockMode.values()) {
+            byte[] data = message.clone();
+            new SimplifiedDESModeCipher(CIPHER, mode, IV).encrypt(data, 0, data.length);
+
+            int previous = IV;
+            for (int i = 0; i < message.length; i++) {
+                int expected;
+                switch (mode) {
+                    case ECB:
+                        expected = CIPHER.encryptBlock(message[i] & 0xFF);
+                        break;
+                    case CBC:
+                        expected = CIPHER.encryptBlock((message[i] & 0xFF) ^ previous);
+                        previous = expected;
+                        break;
+                    default:
+                        expected = (message[i] & 0xFF) ^ CIPHER.encryptBlock((IV + (i & 0xFF)) & 0xFF);
+                        break;
+                }
+                assertEquals(mode + " at " + i, expected, data[i] & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void byteArrayRoundTrip() {
+        byte[] message = message();
+        for (BlockMode mode : BlockMode.values()) {
+            SimplifiedDESModeCipher cipher = new SimplifiedDESModeCipher(CIPHER, mode, IV);
+            byte[] data = message.clone();
+            cipher.encrypt(data, 0, data.length);
+            cipher.decrypt(data, 0, data.length);
+            assertArrayEquals(mode.toString(), message, data);
+        }
+    }
+
+    @Test
+    public void directBuffersMatchByteArray() {
+        byte[] message = message();
+        for (BlockMode mode : BlockMode.values()) {
+            SimplifiedDESModeCipher cipher = new SimplifiedDESModeCipher(CIPHER, mode, IV);
+            byte[] expected = message.clone();
+            cipher.encrypt(expected, 0, expected.length);
+
+            ByteBuffer ciphertext = ByteBuffer.allocateDirect(LENGTH);
+            cipher.encrypt(ByteBuffer.wrap(message), ciphertext);
+            ciphertext.flip();
+            byte[] actual = new byte[LENGTH];
+            ciphertext.duplicate().get(actual);
+            assertArrayEquals(mode.toString(), expected, actual);
+
+            ByteBuffer plaintext = ByteBuffer.allocateDirect(LENGTH);
+            cipher.decrypt(ciphertext, plaintext);
+            plaintext.flip();
+            plaintext.get(actual);
+            assertArrayEquals(mode.toString(), message, actual);
+        }
+    }
+}
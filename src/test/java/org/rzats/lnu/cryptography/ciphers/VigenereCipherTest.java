@@ -0,0 +1,96 @@
+package org.rzats.lnu.cryptography.ciphers;
+
+import org.junit.Test;
+import org.rzats.lnu.cryptography.common.ArrayUtilities;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class VigenereCipherTest {
+    private static final byte[] UTF8_TEXT = "Ärger über café naïve ÿ - attack at dawn".getBytes(StandardCharsets.UTF_8);
+
+    private static VigenereCipher lemon() {
+        return new VigenereCipher(ArrayUtilities.toASCIIArray("LEMON"));
+    }
+
+    @Test
+    public void encryptsKnownAnswer() {
+        int[] ciphertext = lemon().encrypt(ArrayUtilities.toASCIIArray("ATTACK AT DAWN"));
+        assertEquals("LXFOPV EF RNHR", ArrayUtilities.toText(ciphertext));
+        assertEquals("ATTACK AT DAWN", ArrayUtilities.toText(lemon().decrypt(ciphertext)));
+    }
+
+    @Test
+    public void nonASCIIBytesDoNotAdvanceTheKey() {
+        byte[] data = "ATTACK é AT DAWN".getBytes(StandardCharsets.UTF_8);
+        lemon().encrypt(data, 0, data.length);
+        assertEquals("LXFOPV é EF RNHR", new String(data, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void byteArrayRoundTrip() {
+        byte[] data = UTF8_TEXT.clone();
+        VigenereCipher cipher = lemon();
+        cipher.encrypt(data, 0, data.length);
+        cipher.decrypt(data, 0, data.length);
+        assertArrayEquals(UTF8_TEXT, data);
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 300_000) {
+            text.append("Ärger über café naïve - attack at dawn! ");
+        }
+        byte[] plaintext = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] sequential = plaintext.clone();
+        lemon().encrypt(sequential, 0, sequential.length);
+        byte[] parallel = plaintext.clone();
+        VigenereCipher cipher = new VigenereCipher(ArrayUtilities.toASCIIArray("LEMON"), true);
+        cipher.encrypt(parallel, 0, parallel.length);
+        assertArrayEquals(sequential, parallel);
+
+        cipher.decrypt(parallel, 0, parallel.length);
+        assertArrayEquals(plaintext, parallel);
+
+        int[] codePoints = ArrayUtilities.toASCIIArray(text.toString());
+        assertArrayEquals(lemon().encrypt(codePoints), cipher.encrypt(codePoints));
+    }
+
+    @Test
+    public void streamMatchesByteArray() throws IOException {
+        VigenereCipher cipher = lemon();
+        byte[] expected = UTF8_TEXT.clone();
+        cipher.encrypt(expected, 0, expected.length);
+
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        try (OutputStream out = new CipherOutputStream(ciphertext, cipher.newEncryptor())) {
+            for (int i = 0; i < UTF8_TEXT.length; i += 3) {
+                out.write(UTF8_TEXT, i, Math.min(3, UTF8_TEXT.length - i));
+            }
+        }
+        assertArrayEquals(expected, ciphertext.toByteArray());
+    }
+
+    @Test
+    public void everyPathAgreesOnEveryByte() throws IOException {
+        CaesarCipherTest.assertPathsAgree(lemon());
+    }
+
+    @Test
+    public void intArrayLeavesNonASCIILettersUnchanged() {
+        int[] ciphertext = lemon().encrypt(ArrayUtilities.toASCIIArray("ATTACK \u00c9t\u00e9 AT DAWN"));
+        assertEquals("LXFOPV \u00c9x\u00e9 MH QLAZ", ArrayUtilities.toText(ciphertext));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonASCIIKeyLetters() {
+        new VigenereCipher(ArrayUtilities.toASCIIArray("L\u00c9MON"));
+    }
+}
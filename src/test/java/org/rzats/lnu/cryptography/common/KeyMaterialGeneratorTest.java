@@ -0,0 +1,63 @@
+package org.rzats.lnu.cryptography.common;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeyMaterialGeneratorTest {
+    private static final int LENGTH = (3 << 20) + 13;
+
+    @Test
+    public void fastGeneratorIsReproducible() {
+        byte[] first = new byte[LENGTH];
+        byte[] second = new byte[LENGTH];
+        KeyMaterialGenerator.fast(42).fill(first, 0, first.length);
+        KeyMaterialGenerator.fast(42).fill(second, 0, second.length);
+        assertArrayEquals(first, second);
+
+        assertArrayEquals(KeyMaterialGenerator.fast(7).nextInts(100, 0, 10),
+            KeyMaterialGenerator.fast(7).nextInts(100, 0, 10));
+    }
+
+    @Test
+    public void fillsTheWholeRange() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(LENGTH);
+        buffer.position(5);
+        KeyMaterialGenerator.secure().fill(buffer);
+        assertEquals(LENGTH, buffer.position());
+
+        // 64 random bytes that are all zero are practically impossible.
+        byte[] tail = new byte[64];
+        buffer.position(LENGTH - tail.length);
+        buffer.get(tail);
+        assertFalse(Arrays.equals(new byte[tail.length], tail));
+    }
+
+    @Test
+    public void concurrentNextIntsGiveDistinctStreams() {
+        KeyMaterialGenerator generator = KeyMaterialGenerator.fast(1);
+        List<String> streams = IntStream.range(0, 1000).parallel()
+            .mapToObj(i -> Arrays.toString(generator.nextInts(8, 0, Integer.MAX_VALUE)))
+            .collect(Collectors.toList());
+        assertEquals(streams.size(), streams.stream().distinct().count());
+    }
+
+    @Test
+    public void nextIntsStayInRange() {
+        for (KeyMaterialGenerator generator : new KeyMaterialGenerator[]{
+            KeyMaterialGenerator.secure(), KeyMaterialGenerator.fast(3)}) {
+            for (int value : generator.nextInts(10_000, 65, 91)) {
+                assertTrue(value >= 65 && value < 91);
+            }
+        }
+    }
+}
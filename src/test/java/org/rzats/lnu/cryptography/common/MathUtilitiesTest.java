@@ -0,0 +1,104 @@
+package org.rzats.lnu.cryptography.common;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MathUtilitiesTest {
+    @Test
+    public void invertsKnownValues() {
+        assertEquals(4, MathUtilities.modularMultiplicativeInverse(3, 11));
+        assertEquals(2753, MathUtilities.modularMultiplicativeInverse(17L, 3120L));
+        assertEquals(7, MathUtilities.modularMultiplicativeInverse(-3L, 11L));
+        assertEquals(BigInteger.valueOf(2753),
+            MathUtilities.modularMultiplicativeInverse(BigInteger.valueOf(17), BigInteger.valueOf(3120)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonInvertibleValue() {
+        MathUtilities.modularMultiplicativeInverse(6L, 9L);
+    }
+
+    @Test
+    public void multipliesLargeModuliExactly() {
+        Random random = new Random(42);
+        long[] moduli = {Integer.MAX_VALUE + 2L, 1L << 40, (1L << 61) - 1, (1L << 62) + 1, Long.MAX_VALUE};
+        for (long m : moduli) {
+            for (int i = 0; i < 1000; i++) {
+                long a = Math.floorMod(random.nextLong(), m);
+                long b = Math.floorMod(random.nextLong(), m);
+                long expected = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(BigInteger.valueOf(m))
+                    .longValue();
+                assertEquals(expected, MathUtilities.modularMultiply(a, b, m));
+            }
+            assertEquals(0, MathUtilities.modularMultiply(m - 1, 0, m));
+            assertEquals(1, MathUtilities.modularMultiply(m - 1, m - 1, m));
+        }
+    }
+
+    @Test
+    public void batchInversionMatchesSingleInversion() {
+        Random random = new Random(42);
+        for (long m : new long[]{2147483629L, (1L << 61) - 1}) {
+            long[] values = new long[1000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 1 + Math.floorMod(random.nextLong(), m - 1);
+            }
+            values[0] = -values[0];
+
+            long[] inverses = new long[values.length];
+            MathUtilities.batchModularInverse(values, m, inverses);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(MathUtilities.modularMultiplicativeInverse(values[i], m), inverses[i]);
+            }
+        }
+    }
+
+    @Test
+    public void batchInversionOfBigIntegersMatchesModInverse() {
+        Random random = new Random(42);
+        BigInteger m = BigInteger.probablePrime(256, random);
+        BigInteger[] values = new BigInteger[100];
+        BigInteger[] expected = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new BigInteger(255, random).add(BigInteger.ONE);
+            expected[i] = values[i].modInverse(m);
+        }
+        assertArrayEquals(expected, MathUtilities.batchModularInverse(values, m));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchInversionRejectsNonInvertibleValue() {
+        MathUtilities.batchModularInverse(new long[]{2, 3, 4}, 9, new long[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchInversionRejectsNonPositiveModulus() {
+        MathUtilities.batchModularInverse(new long[]{2, 3}, -7, new long[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchInversionRejectsSharedArray() {
+        long[] values = {2, 3};
+        MathUtilities.batchModularInverse(values, 7, values);
+    }
+
+    @Test
+    public void exponentiatesLikeModPow() {
+        Random random = new Random(42);
+        assertEquals(445, MathUtilities.modularExponentiation(4, 13, 497));
+        assertEquals(0, MathUtilities.modularExponentiation(5L, 0L, 1L));
+        for (long m : new long[]{497, 2147483629L, (1L << 61) - 1}) {
+            for (int i = 0; i < 100; i++) {
+                long d = random.nextLong();
+                long e = random.nextLong() >>> 1;
+                assertEquals(BigInteger.valueOf(d).modPow(BigInteger.valueOf(e), BigInteger.valueOf(m)).longValue(),
+                    MathUtilities.modularExponentiation(d, e, m));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.rzats.lnu.cryptography.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelUtilitiesTest {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    @Test
+    public void countsChunks() {
+        assertEquals(0, ParallelUtilities.chunkCount(0, CHUNK_SIZE));
+        assertEquals(1, ParallelUtilities.chunkCount(1, CHUNK_SIZE));
+        assertEquals(1, ParallelUtilities.chunkCount(CHUNK_SIZE, CHUNK_SIZE));
+        assertEquals(2, ParallelUtilities.chunkCount(CHUNK_SIZE + 1, CHUNK_SIZE));
+        assertEquals(1 << 15, ParallelUtilities.chunkCount(Integer.MAX_VALUE, CHUNK_SIZE));
+    }
+
+    @Test
+    public void chunkBoundsDoNotOverflow() {
+        int length = Integer.MAX_VALUE;
+        int last = ParallelUtilities.chunkCount(length, CHUNK_SIZE) - 1;
+        assertEquals(Integer.MAX_VALUE, ParallelUtilities.chunkEnd(last, CHUNK_SIZE, length));
+        assertEquals(last * CHUNK_SIZE, ParallelUtilities.chunkEnd(last - 1, CHUNK_SIZE, length));
+    }
+
+    @Test
+    public void coversEveryIndexOnce() {
+        int length = 5 * CHUNK_SIZE + 123;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        ParallelUtilities.inChunks(length, CHUNK_SIZE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                sum.addAndGet(i);
+            }
+            count.addAndGet(to - from);
+        });
+        assertEquals(length, count.get());
+        assertEquals((long) length * (length - 1) / 2, sum.get());
+    }
+}
@@ -0,0 +1,72 @@
+package org.rzats.lnu.cryptography.cryptanalysis;
+
+import org.junit.Test;
+import org.rzats.lnu.cryptography.ciphers.CaesarCipher;
+import org.rzats.lnu.cryptography.common.ArrayUtilities;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CaesarBreakerTest {
+    private static final String PLAINTEXT = "It was the best of times, it was the worst of times, it was the age of wisdom, "
+        + "it was the age of foolishness, it was the epoch of belief, it was the epoch of incredulity.";
+
+    private static String encrypt(int shift) {
+        return ArrayUtilities.toText(new CaesarCipher(shift).encrypt(ArrayUtilities.toASCIIArray(PLAINTEXT)));
+    }
+
+    @Test
+    public void findsEveryShiftOfEnglishText() {
+        for (int shift = 0; shift < 26; shift++) {
+            assertEquals(shift, CaesarBreaker.rankShifts(encrypt(shift))[0]);
+        }
+    }
+
+    @Test
+    public void ranksEveryShiftOnce() {
+        int[] ranking = CaesarBreaker.rankShifts(encrypt(7)).clone();
+        Arrays.sort(ranking);
+        for (int shift = 0; shift < 26; shift++) {
+            assertEquals(shift, ranking[shift]);
+        }
+    }
+
+    @Test
+    public void ranksFilesLikeText() throws IOException {
+        String ciphertext = encrypt(11);
+        Path file = Files.createTempFile("ciphertext", ".txt");
+        try {
+            Files.write(file, ciphertext.getBytes(StandardCharsets.US_ASCII));
+            assertArrayEquals(CaesarBreaker.rankShifts(ciphertext), CaesarBreaker.rankShifts(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void scoresShiftedHistogramsAlike() {
+        long[] counts = TextUtilities.letterCounts(encrypt(0));
+        long[] shifted = TextUtilities.letterCounts(encrypt(5));
+        double[] scores = CaesarBreaker.chiSquared(counts);
+        double[] shiftedScores = CaesarBreaker.chiSquared(shifted);
+        for (int shift = 0; shift < 26; shift++) {
+            assertEquals(scores[shift], shiftedScores[(shift + 5) % 26], 1e-9);
+        }
+    }
+
+    @Test
+    public void scoresTextWithoutLettersAsZero() {
+        assertArrayEquals(new double[26], CaesarBreaker.chiSquared(TextUtilities.letterCounts("1234, 5678!")), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsIncompleteHistogram() {
+        CaesarBreaker.chiSquared(new long[25]);
+    }
+}
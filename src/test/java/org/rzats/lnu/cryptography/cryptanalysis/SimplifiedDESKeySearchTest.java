@@ -0,0 +1,121 @@
+package org.rzats.lnu.cryptography.cryptanalysis;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rzats.lnu.cryptography.ciphers.SimplifiedDESCipher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimplifiedDESKeySearchTest {
+    private static final int KEYS = 1 << 10;
+
+    private static SimplifiedDESCipher[] ciphers;
+
+    @BeforeClass
+    public static void createCiphers() {
+        ciphers = new SimplifiedDESCipher[KEYS];
+        for (int key = 0; key < KEYS; key++) {
+            ciphers[key] = new SimplifiedDESCipher(key);
+        }
+    }
+
+    @Test
+    public void matchesBruteForceOnRandomPairs() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 500; trial++) {
+            SimplifiedDESCipher cipher = ciphers[random.nextInt(KEYS)];
+            int[] plaintexts = new int[1 + random.nextInt(4)];
+            int[] ciphertexts = new int[plaintexts.length];
+            for (int i = 0; i < plaintexts.length; i++) {
+                plaintexts[i] = random.nextInt(256);
+                ciphertexts[i] = cipher.encryptBlock(plaintexts[i]);
+            }
+
+            assertEquals(bruteForce(plaintexts, ciphertexts), SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts));
+        }
+    }
+
+    @Test
+    public void findsEveryKeyWhenSeveralMatch() {
+        Random random = new Random(42);
+        int ambiguous = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            int key = random.nextInt(KEYS);
+            int[] plaintexts = {random.nextInt(256)};
+            int[] ciphertexts = {ciphers[key].encryptBlock(plaintexts[0])};
+
+            List<Integer> keys = SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts);
+            assertEquals(bruteForce(plaintexts, ciphertexts), keys);
+            assertTrue(keys.contains(key));
+            if (keys.size() > 1) {
+                ambiguous++;
+            }
+        }
+        // A single pair leaves about 4 of the 1024 keys, so most of these searches are ambiguous.
+        assertTrue(ambiguous > 100);
+    }
+
+    @Test
+    public void findsExactlyTheKeyFromAFullCodebook() {
+        int[] plaintexts = new int[256];
+        int[] ciphertexts = new int[256];
+        for (int key : new int[]{0, 0b1100110001, 0b1010000010, KEYS - 1}) {
+            for (int block = 0; block < 256; block++) {
+                plaintexts[block] = block;
+                ciphertexts[block] = ciphers[key].encryptBlock(block);
+            }
+
+            assertEquals(bruteForce(plaintexts, ciphertexts), SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts));
+            assertTrue(SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts).contains(key));
+        }
+    }
+
+    @Test
+    public void repeatedPairsDoNotChangeTheResult() {
+        int[] plaintexts = {0x5A, 0x5A, 0x13, 0x5A};
+        int[] ciphertexts = new int[plaintexts.length];
+        for (int i = 0; i < plaintexts.length; i++) {
+            ciphertexts[i] = ciphers[0b0111010101].encryptBlock(plaintexts[i]);
+        }
+
+        assertEquals(bruteForce(plaintexts, ciphertexts), SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts));
+    }
+
+    @Test
+    public void contradictoryPairsMatchNoKey() {
+        int[] plaintexts = {0x5A, 0x5A};
+        int[] ciphertexts = {0x00, 0x01};
+
+        assertEquals(Collections.emptyList(), SimplifiedDESKeySearch.findKeys(plaintexts, ciphertexts));
+    }
+
+    @Test
+    public void noPairsMatchEveryKey() {
+        assertEquals(KEYS, SimplifiedDESKeySearch.findKeys(new int[0], new int[0]).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnpairedBlocks() {
+        SimplifiedDESKeySearch.findKeys(new int[]{1, 2}, new int[]{3});
+    }
+
+    private static List<Integer> bruteForce(int[] plaintexts, int[] ciphertexts) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < KEYS; key++) {
+            boolean matches = true;
+            for (int i = 0; i < plaintexts.length && matches; i++) {
+                matches = ciphers[key].encryptBlock(plaintexts[i]) == ciphertexts[i];
+            }
+            if (matches) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,111 @@
+package org.rzats.lnu.cryptography.cryptanalysis;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TextUtilitiesTest {
+    private static final String TEXT = "Hello, World! Zz-Aa \u00e9\u0100";
+
+    private static long[] expectedCounts() {
+        long[] counts = new long[26];
+        counts['a' - 'a'] = 2;
+        counts['d' - 'a'] = 1;
+        counts['e' - 'a'] = 1;
+        counts['h' - 'a'] = 1;
+        counts['l' - 'a'] = 3;
+        counts['o' - 'a'] = 2;
+        counts['r' - 'a'] = 1;
+        counts['w' - 'a'] = 1;
+        counts['z' - 'a'] = 2;
+        return counts;
+    }
+
+    @Test
+    public void countsLettersCaseInsensitively() throws IOException {
+        assertArrayEquals(expectedCounts(), TextUtilities.letterCounts(TEXT));
+        assertArrayEquals(expectedCounts(), TextUtilities.letterCounts(new StringReader(TEXT)));
+    }
+
+    @Test
+    public void countsTheRemainingBytesOfBuffers() {
+        byte[] bytes = ("##" + TEXT + "##").getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer heap = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).position(2).limit(bytes.length - 2);
+
+        // Only the text between the markers counts - its' non-Latin letters aren't counted either.
+        long[] expected = expectedCounts();
+        for (ByteBuffer buffer : new ByteBuffer[]{heap, heap.slice(), direct, direct.slice()}) {
+            int position = buffer.position();
+            assertArrayEquals(expected, TextUtilities.letterCounts(buffer));
+            assertEquals(position, buffer.position());
+        }
+    }
+
+    @Test
+    public void countsBuffersSpanningSeveralChunks() {
+        Random random = new Random(42);
+        byte[] bytes = new byte[(1 << 24) * 2 + 12345];
+        random.nextBytes(bytes);
+        long[] expected = new long[26];
+        for (byte b : bytes) {
+            int c = b & 0xFF;
+            if (c >= 'A' && c <= 'Z') {
+                expected[c - 'A']++;
+            } else if (c >= 'a' && c <= 'z') {
+                expected[c - 'a']++;
+            }
+        }
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertArrayEquals(expected, TextUtilities.letterCounts(ByteBuffer.wrap(bytes)));
+        assertArrayEquals(expected, TextUtilities.letterCounts(direct));
+    }
+
+    @Test
+    public void countsFiles() throws IOException {
+        Path file = Files.createTempFile("letters", ".txt");
+        try {
+            Files.write(file, TEXT.getBytes(StandardCharsets.ISO_8859_1));
+            assertArrayEquals(expectedCounts(), TextUtilities.letterCounts(file));
+
+            Files.write(file, new byte[0]);
+            assertArrayEquals(new long[26], TextUtilities.letterCounts(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void convertsCountsToFrequencies() {
+        long[] counts = new long[26];
+        counts[0] = 3;
+        counts[25] = 1;
+        double[] frequencies = TextUtilities.frequencies(counts);
+        assertEquals(0.75, frequencies[0], 0);
+        assertEquals(0.25, frequencies[25], 0);
+        assertArrayEquals(new double[26], TextUtilities.frequencies(new long[26]), 0);
+    }
+
+    @Test
+    public void buildsFrequencyDistribution() {
+        Map<Character, Double> distribution = TextUtilities.frequencyDistribution("aAbC");
+        assertEquals(26, distribution.size());
+        assertEquals(0.5, distribution.get('A'), 0);
+        assertEquals(0.25, distribution.get('B'), 0);
+        assertEquals(0.25, distribution.get('C'), 0);
+        assertEquals(0.0, distribution.get('Z'), 0);
+    }
+}
@@ -0,0 +1,99 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class DiffieHellmanGroupTest {
+    @Test
+    public void exponentiatesLikeModPow() {
+        Random random = new Random(42);
+        BigInteger modulus = BigInteger.probablePrime(256, random);
+        BigInteger base = BigInteger.valueOf(5);
+        for (int windowBits = 1; windowBits <= 8; windowBits++) {
+            DiffieHellmanGroup group = new DiffieHellmanGroup(modulus, base, windowBits);
+            assertEquals(BigInteger.ONE, group.exponentiate(BigInteger.ZERO));
+            for (int i = 0; i < 20; i++) {
+                BigInteger exponent = new BigInteger(modulus.bitLength() + i % 3, random);
+                assertEquals(base.modPow(exponent, modulus), group.exponentiate(exponent));
+            }
+        }
+    }
+
+    @Test
+    public void partiesAgreeOnKnownSecret() {
+        // p = 23, g = 5, a = 6, b = 15: A = 8, B = 19, s = 2.
+        DiffieHellmanParty alice = new DiffieHellmanParty(23, 5);
+        DiffieHellmanParty bob = new DiffieHellmanParty(23, 5);
+        alice.setPrivateKey(6);
+        bob.setPrivateKey(15);
+        assertEquals(BigInteger.valueOf(8), alice.getPublicKey());
+        assertEquals(BigInteger.valueOf(19), bob.getPublicKey());
+
+        alice.sendPublicKey(bob);
+        bob.sendPublicKey(alice);
+        assertEquals(2, alice.getSecret());
+        assertEquals(2, bob.getSecret());
+    }
+
+    @Test
+    public void sharesGroupsWithTheSameParameters() {
+        BigInteger modulus = BigInteger.valueOf(1000003);
+        DiffieHellmanGroup group = DiffieHellmanGroup.of(modulus, BigInteger.valueOf(2));
+        assertSame(group, DiffieHellmanGroup.of(modulus, BigInteger.valueOf(2)));
+        assertNotSame(group, DiffieHellmanGroup.of(modulus, BigInteger.valueOf(3)));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedGroups() {
+        BigInteger modulus = BigInteger.valueOf(1000033);
+        DiffieHellmanGroup first = DiffieHellmanGroup.of(modulus, BigInteger.valueOf(2));
+        for (int base = 3; base < 100; base++) {
+            DiffieHellmanGroup.of(modulus, BigInteger.valueOf(base));
+        }
+        assertNotSame(first, DiffieHellmanGroup.of(modulus, BigInteger.valueOf(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEvenModulus() {
+        DiffieHellmanGroup.of(BigInteger.valueOf(100), BigInteger.valueOf(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBaseOutOfRange() {
+        DiffieHellmanGroup.of(BigInteger.valueOf(23), BigInteger.valueOf(23));
+    }
+
+    @Test
+    public void rejectsDegeneratePublicKeys() {
+        DiffieHellmanParty party = new DiffieHellmanParty(23, 5);
+        for (long publicKey : new long[]{-1, 0, 1, 22, 23, 24}) {
+            try {
+                party.receivePublicKey(publicKey);
+                fail("Accepted the public key " + publicKey);
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+        party.receivePublicKey(2);
+        party.receivePublicKey(21);
+    }
+
+    @Test
+    public void randomPartiesAlwaysAgree() {
+        // 5 generates the whole group modulo 23, so private key 11 would give the public key 22.
+        for (int i = 0; i < 200; i++) {
+            DiffieHellmanParty alice = new DiffieHellmanParty(23, 5);
+            DiffieHellmanParty bob = new DiffieHellmanParty(23, 5);
+            alice.sendPublicKey(bob);
+            bob.sendPublicKey(alice);
+            assertEquals(alice.getSharedSecret(), bob.getSharedSecret());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GroupKeyAgreementTest {
+    private static DiffieHellmanGroup group;
+
+    @BeforeClass
+    public static void createGroup() {
+        group = new DiffieHellmanGroup(BigInteger.probablePrime(128, new Random(42)), BigInteger.valueOf(5), 4);
+    }
+
+    private static void assertEveryMemberAgrees(GroupKeyAgreement agreement, List<Integer> members) {
+        assertEquals(members.size(), agreement.size());
+        for (int member : members) {
+            assertEquals("member " + member, agreement.getGroupSecret(), agreement.computeGroupSecret(member));
+        }
+    }
+
+    @Test
+    public void everyInitialMemberAgrees() {
+        for (int size = 1; size <= 17; size++) {
+            GroupKeyAgreement agreement = new GroupKeyAgreement(group, size);
+            List<Integer> members = new ArrayList<>();
+            for (int m = 0; m < size; m++) {
+                members.add(m);
+            }
+            assertEveryMemberAgrees(agreement, members);
+        }
+    }
+
+    @Test
+    public void everyMemberAgreesAfterRandomJoinsAndLeaves() {
+        Random random = new Random(42);
+        GroupKeyAgreement agreement = new GroupKeyAgreement(group, 3);
+        List<Integer> members = new ArrayList<>();
+        for (int m = 0; m < 3; m++) {
+            members.add(m);
+        }
+
+        // Three members fill half of a tree of four leaves.
+        int capacity = 4;
+        int grows = 0;
+        for (int step = 0; step < 300; step++) {
+            BigInteger before = agreement.getGroupSecret();
+            // Joins outweigh leaves, so the tree grows several times along the way.
+            if (members.size() == 1 || random.nextInt(5) < 3) {
+                int member = agreement.join();
+                assertFalse("member " + member + " is already in the group", members.contains(member));
+                // Only a grown tree has leaves past the old capacity.
+                if (member >= capacity) {
+                    capacity *= 2;
+                    grows++;
+                }
+                members.add(member);
+            } else {
+                int member = members.remove(random.nextInt(members.size()));
+                agreement.leave(member);
+            }
+
+            assertNotEquals("step " + step, before, agreement.getGroupSecret());
+            assertEveryMemberAgrees(agreement, members);
+        }
+        assertTrue("grew " + grows + " times", grows >= 3);
+    }
+
+    @Test
+    public void joiningAfterEveryoneButOneLeftStillAgrees() {
+        GroupKeyAgreement agreement = new GroupKeyAgreement(group, 8);
+        for (int m = 0; m < 7; m++) {
+            agreement.leave(m);
+        }
+        List<Integer> members = new ArrayList<>();
+        members.add(7);
+        assertEquals(agreement.getGroupSecret(), agreement.computeGroupSecret(7));
+
+        for (int i = 0; i < 10; i++) {
+            members.add(agreement.join());
+            assertEveryMemberAgrees(agreement, members);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLeaveOfNonMember() {
+        GroupKeyAgreement agreement = new GroupKeyAgreement(group, 3);
+        agreement.leave(1);
+        agreement.leave(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLeaveOutsideTheTree() {
+        new GroupKeyAgreement(group, 3).leave(4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsLeaveOfTheLastMember() {
+        GroupKeyAgreement agreement = new GroupKeyAgreement(group, 2);
+        agreement.leave(0);
+        agreement.leave(1);
+    }
+}
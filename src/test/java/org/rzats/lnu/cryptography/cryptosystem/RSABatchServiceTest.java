@@ -0,0 +1,117 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RSABatchServiceTest {
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private static RSACryptosystem rsa;
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void createKey() {
+        Random random = new Random(42);
+        rsa = new RSACryptosystem(BigInteger.probablePrime(256, random), BigInteger.probablePrime(256, random),
+            BigInteger.valueOf(65537));
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    private static byte[] message(int i) {
+        return ("message " + i).getBytes();
+    }
+
+    @Test
+    public void batchesPreserveOrder() {
+        RSABatchService service = new RSABatchService(rsa, pool, MAX_IN_FLIGHT);
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            messages.add(message(i));
+        }
+
+        List<byte[]> plaintexts = service.decryptAll(service.encryptAll(messages).join()).join();
+        assertEquals(messages.size(), plaintexts.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertArrayEquals(messages.get(i), plaintexts.get(i));
+        }
+    }
+
+    @Test
+    public void boundsTheMessagesInFlight() {
+        RSABatchService service = new RSABatchService(rsa, pool, MAX_IN_FLIGHT);
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+
+        Stream<byte[]> messages = IntStream.range(0, 500).mapToObj(i -> {
+            int outstanding = pulled.incrementAndGet() - received.get();
+            maxOutstanding.accumulateAndGet(outstanding, Math::max);
+            return message(i);
+        });
+        service.encrypt(messages, (ciphertext, i) -> received.incrementAndGet()).join();
+
+        assertEquals(500, received.get());
+        assertTrue("At most " + maxOutstanding.get() + " in flight", maxOutstanding.get() <= MAX_IN_FLIGHT);
+    }
+
+    @Test(timeout = 10_000)
+    public void doesNotBlockTheCaller() throws InterruptedException {
+        RSABatchService service = new RSABatchService(rsa, pool, MAX_IN_FLIGHT);
+        CountDownLatch released = new CountDownLatch(1);
+
+        Stream<byte[]> messages = IntStream.range(0, 10).mapToObj(i -> {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return message(i);
+        });
+        CompletableFuture<Void> done = service.encrypt(messages, (ciphertext, i) -> {
+        });
+
+        assertFalse(done.isDone());
+        released.countDown();
+        done.join();
+    }
+
+    @Test
+    public void reportsTheFirstFailure() throws InterruptedException {
+        RSABatchService service = new RSABatchService(rsa, pool, MAX_IN_FLIGHT);
+        List<byte[]> ciphertexts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ciphertexts.add(i == 10 ? new byte[rsa.getBlockSize() - 1] : rsa.encrypt(message(i)));
+        }
+
+        try {
+            service.decryptAll(ciphertexts).get();
+            fail("A truncated ciphertext must fail the batch");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RSACryptosystemTest {
+    @Test
+    public void encryptsKnownAnswer() {
+        // p = 61, q = 53, e = 17, so d = 2753.
+        RSACryptosystem rsa = new RSACryptosystem(61, 53, 17);
+        assertEquals(2790, rsa.encrypt(65));
+        assertEquals(65, rsa.decrypt(2790));
+    }
+
+    @Test
+    public void encryptsKnownString() {
+        RSACryptosystem rsa = new RSACryptosystem(3, 11, 7);
+        assertEquals("}qlluwuilj", rsa.encrypt("helloworld"));
+        assertEquals("helloworld", rsa.decrypt("}qlluwuilj"));
+    }
+
+    @Test
+    public void roundTripsEveryValueWithAnEvenPrime() {
+        // p - 1 = 1 reduces the CRT exponent for p to 0.
+        RSACryptosystem rsa = new RSACryptosystem(2, 11, 3);
+        for (int m = 0; m < 22; m++) {
+            assertEquals(m, rsa.decrypt(rsa.encrypt(m)));
+        }
+    }
+
+    @Test
+    public void crtDecryptionMatchesModPow() {
+        Random random = new Random(42);
+        BigInteger p = BigInteger.probablePrime(512, random);
+        BigInteger q = BigInteger.probablePrime(512, random);
+        BigInteger e = BigInteger.valueOf(65537);
+        RSACryptosystem rsa = new RSACryptosystem(p, q, e);
+
+        BigInteger n = p.multiply(q);
+        BigInteger d = e.modInverse(p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE)));
+        for (int i = 0; i < 20; i++) {
+            BigInteger c = new BigInteger(n.bitLength() - 1, random);
+            assertEquals(c.modPow(d, n), rsa.decrypt(c));
+            assertEquals(c, rsa.decrypt(rsa.encrypt(c)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValuesOutsideTheModulus() {
+        new RSACryptosystem(61, 53, 17).encrypt(BigInteger.valueOf(61 * 53));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPublicKeyNotCoPrimeToPhi() {
+        new RSACryptosystem(61, 53, 13);
+    }
+
+    @Test
+    public void packsBytesIntoPaddedBlocks() {
+        Random random = new Random(7);
+        RSACryptosystem rsa = new RSACryptosystem(BigInteger.probablePrime(256, random),
+            BigInteger.probablePrime(256, random), BigInteger.valueOf(65537));
+        int capacity = rsa.getBlockCapacity();
+        assertEquals(rsa.getBlockSize() - RSACryptosystem.BLOCK_OVERHEAD, capacity);
+
+        for (int length : new int[]{0, 1, capacity - 1, capacity, capacity + 1, 10 * capacity + 3}) {
+            byte[] message = new byte[length];
+            random.nextBytes(message);
+            byte[] ciphertext = rsa.encrypt(message);
+
+            assertEquals((length + capacity - 1) / capacity * rsa.getBlockSize(), ciphertext.length);
+            assertArrayEquals(message, rsa.decrypt(ciphertext));
+
+            // Every block is 0x00 0x02, then at least 8 non-zero padding bytes and a zero separator.
+            for (int offset = 0; offset < ciphertext.length; offset += rsa.getBlockSize()) {
+                BigInteger block = rsa.decrypt(new BigInteger(1,
+                    Arrays.copyOfRange(ciphertext, offset, offset + rsa.getBlockSize())));
+                assertEquals(2, block.shiftRight(8 * (rsa.getBlockSize() - 2)).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void paddingIsRandomized() {
+        Random random = new Random(11);
+        RSACryptosystem rsa = new RSACryptosystem(BigInteger.probablePrime(256, random),
+            BigInteger.probablePrime(256, random), BigInteger.valueOf(65537));
+        byte[] message = "attack at dawn".getBytes();
+        assertFalse(Arrays.equals(rsa.encrypt(message), rsa.encrypt(message)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTamperedCiphertext() {
+        Random random = new Random(13);
+        RSACryptosystem rsa = new RSACryptosystem(BigInteger.probablePrime(256, random),
+            BigInteger.probablePrime(256, random), BigInteger.valueOf(65537));
+        byte[] ciphertext = rsa.encrypt("attack at dawn".getBytes());
+        ciphertext[ciphertext.length / 2] ^= 1;
+        rsa.decrypt(ciphertext);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsModulusTooSmallForPadding() {
+        new RSACryptosystem(61, 53, 17).getBlockCapacity();
+    }
+}
@@ -0,0 +1,142 @@
+package org.rzats.lnu.cryptography.cryptosystem;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RSAKeyGeneratorTest {
+    private static final BigInteger PUBLIC_KEY = RSAKeyGenerator.DEFAULT_PUBLIC_KEY;
+
+    @Test
+    public void generatesValidPrimes() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int bits : new int[]{64, 65, 127, 256, 513}) {
+                assertValidPrimes(new RSAKeyGenerator(bits, PUBLIC_KEY, pool), bits, PUBLIC_KEY);
+            }
+            // A small exponent rules out far more candidates than 65537 does.
+            assertValidPrimes(new RSAKeyGenerator(128, BigInteger.valueOf(3), pool), 128, BigInteger.valueOf(3));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void generatedKeysRoundTrip() {
+        Random random = new Random(42);
+        for (int bits : new int[]{128, 512}) {
+            RSACryptosystem rsa = new RSAKeyGenerator(bits).generate();
+            assertEquals(bits, rsa.getModulus().bitLength());
+            assertEquals(PUBLIC_KEY, rsa.getPublicKey());
+
+            for (int i = 0; i < 20; i++) {
+                BigInteger plaintext = new BigInteger(bits - 1, random);
+                assertEquals(plaintext, rsa.decrypt(rsa.encrypt(plaintext)));
+            }
+
+            byte[] message = new byte[3 * rsa.getBlockCapacity() + 1];
+            random.nextBytes(message);
+            assertArrayEquals(message, rsa.decrypt(rsa.encrypt(message)));
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void finishesOnASingleThread() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            // Both primes must be found even though only one worker can run at a time.
+            assertValidPrimes(new RSAKeyGenerator(256, PUBLIC_KEY, pool), 256, PUBLIC_KEY);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void millerRabinRejectsCarmichaelNumbers() {
+        Random random = new Random(42);
+        AtomicBoolean done = new AtomicBoolean();
+        // Carmichael numbers pass the Fermat test for every co-prime base.
+        for (long n : new long[]{561, 1105, 1729, 2465, 2821, 6601, 8911, 41041, 825265, 321197185}) {
+            assertFalse(n + " is not prime", RSAKeyGenerator.millerRabin(BigInteger.valueOf(n), 40, random, done));
+        }
+        for (long n : new long[]{5, 7, 65537, 2147483647, 1000000007}) {
+            assertTrue(n + " is prime", RSAKeyGenerator.millerRabin(BigInteger.valueOf(n), 40, random, done));
+        }
+    }
+
+    @Test
+    public void millerRabinStopsWhenDone() {
+        assertFalse(RSAKeyGenerator.millerRabin(BigInteger.valueOf(65537), 40, new Random(42), new AtomicBoolean(true)));
+    }
+
+    @Test
+    public void sieveMarksExactlyTheCandidatesWithSmallFactors() {
+        int[] primes = oddPrimesBelow(RSAKeyGenerator.SIEVE_LIMIT);
+        Random random = new Random(42);
+        BitSet sieve = new BitSet(RSAKeyGenerator.SIEVE_INTERVAL);
+
+        for (int trial = 0; trial < 20; trial++) {
+            BigInteger start = new BigInteger(64 + trial * 23, random).setBit(63 + trial * 23).setBit(0);
+            assertSieve(start, primes, sieve);
+        }
+        // Starting points that are themselves divisible by small primes.
+        assertSieve(BigInteger.valueOf(3L * 5 * 7 * 11 * 13 * 17 * 19 * 23 * 29 * 31 * 37 * 41 * 43), primes, sieve);
+        assertSieve(BigInteger.valueOf(16381).pow(5), primes, sieve);
+        assertSieve(BigInteger.ONE.shiftLeft(100).subtract(BigInteger.ONE), primes, sieve);
+    }
+
+    private static void assertValidPrimes(RSAKeyGenerator generator, int bits, BigInteger publicKey) {
+        BigInteger[] primes = generator.generatePrimes();
+        BigInteger p = primes[0];
+        BigInteger q = primes[1];
+
+        assertNotEquals(p, q);
+        assertTrue(p.isProbablePrime(100));
+        assertTrue(q.isProbablePrime(100));
+        assertEquals(bits, p.multiply(q).bitLength());
+        assertEquals(BigInteger.ONE, publicKey.gcd(p.subtract(BigInteger.ONE)));
+        assertEquals(BigInteger.ONE, publicKey.gcd(q.subtract(BigInteger.ONE)));
+    }
+
+    private static void assertSieve(BigInteger start, int[] primes, BitSet sieve) {
+        RSAKeyGenerator.sieve(start, sieve);
+
+        BitSet expected = new BitSet(RSAKeyGenerator.SIEVE_INTERVAL);
+        for (int prime : primes) {
+            long residue = start.mod(BigInteger.valueOf(prime)).longValue();
+            for (int i = 0; i < RSAKeyGenerator.SIEVE_INTERVAL; i++) {
+                if ((residue + 2L * i) % prime == 0) {
+                    expected.set(i);
+                }
+            }
+        }
+        assertEquals("start " + start, expected, sieve);
+
+        // Spot-check the marked candidates against BigInteger arithmetic directly.
+        for (int i = sieve.nextSetBit(0); i >= 0; i = sieve.nextSetBit(i + 64)) {
+            BigInteger candidate = start.add(BigInteger.valueOf(2L * i));
+            boolean divisible = false;
+            for (int j = 0; j < primes.length && !divisible; j++) {
+                divisible = candidate.mod(BigInteger.valueOf(primes[j])).signum() == 0;
+            }
+            assertTrue(candidate + " has no small factor", divisible);
+        }
+    }
+
+    private static int[] oddPrimesBelow(int limit) {
+        return IntStream.range(3, limit)
+            .filter(n -> BigInteger.valueOf(n).isProbablePrime(50))
+            .toArray();
+    }
+}
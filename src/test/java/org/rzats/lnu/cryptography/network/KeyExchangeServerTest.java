@@ -0,0 +1,98 @@
+package org.rzats.lnu.cryptography.network;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rzats.lnu.cryptography.cryptosystem.DiffieHellmanGroup;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeyExchangeServerTest {
+    private static final int CONNECTIONS = 50;
+
+    private static DiffieHellmanGroup group;
+
+    @BeforeClass
+    public static void createGroup() {
+        group = new DiffieHellmanGroup(BigInteger.probablePrime(128, new Random(42)), BigInteger.valueOf(5), 4);
+    }
+
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    @Test(timeout = 30_000)
+    public void agreesOnTheSameSecrets() throws IOException {
+        Set<BigInteger> serverSecrets = ConcurrentHashMap.newKeySet();
+        Set<BigInteger> clientSecrets = ConcurrentHashMap.newKeySet();
+        try (KeyExchangeServer server = new KeyExchangeServer(group, loopback(), ForkJoinPool.commonPool(),
+            serverSecrets::add)) {
+            KeyExchangeClient client = new KeyExchangeClient(group, server.getAddress(), ForkJoinPool.commonPool());
+            long[] latencies = client.handshake(CONNECTIONS, clientSecrets::add);
+
+            assertEquals(CONNECTIONS, latencies.length);
+            assertEquals(CONNECTIONS, server.getHandshakes());
+            assertEquals(serverSecrets, clientSecrets);
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void survivesAFailingSecretConsumer() throws IOException {
+        AtomicInteger consumed = new AtomicInteger();
+        try (KeyExchangeServer server = new KeyExchangeServer(group, loopback(), ForkJoinPool.commonPool(),
+            secret -> {
+                if (consumed.getAndIncrement() % 2 == 0) {
+                    throw new IllegalStateException("Failed to store the secret");
+                }
+            })) {
+            KeyExchangeClient client = new KeyExchangeClient(group, server.getAddress(), ForkJoinPool.commonPool());
+            long[] latencies = client.handshake(CONNECTIONS, secret -> {
+            });
+
+            assertEquals(CONNECTIONS / 2, latencies.length);
+            assertEquals(CONNECTIONS / 2, server.getHandshakes());
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void survivesARejectingExecutor() throws IOException {
+        AtomicInteger submitted = new AtomicInteger();
+        Executor executor = task -> {
+            if (submitted.getAndIncrement() < CONNECTIONS) {
+                throw new RejectedExecutionException();
+            }
+            ForkJoinPool.commonPool().execute(task);
+        };
+        try (KeyExchangeServer server = new KeyExchangeServer(group, loopback(), executor, secret -> {
+        })) {
+            KeyExchangeClient client = new KeyExchangeClient(group, server.getAddress(), ForkJoinPool.commonPool());
+            assertEquals(0, client.handshake(CONNECTIONS, secret -> {
+            }).length);
+            assertEquals(CONNECTIONS, client.handshake(CONNECTIONS, secret -> {
+            }).length);
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void dropsHandshakesPastTheTimeLimit() throws IOException {
+        // The OS completes the connections, but nobody ever replies.
+        try (ServerSocket silent = new ServerSocket(0, CONNECTIONS, InetAddress.getLoopbackAddress())) {
+            KeyExchangeClient client = new KeyExchangeClient(group,
+                (InetSocketAddress) silent.getLocalSocketAddress(), ForkJoinPool.commonPool());
+            assertEquals(0, client.handshake(CONNECTIONS, 200, secret -> {
+            }).length);
+        }
+    }
+}